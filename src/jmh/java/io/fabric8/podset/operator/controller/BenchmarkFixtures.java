@@ -0,0 +1,202 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.DefaultKubernetesResourceList;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ListMetaBuilder;
+import io.fabric8.kubernetes.api.model.ListOptions;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.internal.AbstractWatchManager;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.impl.DefaultSharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.impl.ListerWatcher;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import io.fabric8.podset.operator.model.v1alpha1.PodSetSpec;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In memory informers and a stubbed client, so that benchmarks exercise controller code only, without
+ * any network or cluster.
+ */
+final class BenchmarkFixtures {
+    static final String NAMESPACE = "ns1";
+    private static final PodTemplateCache TEMPLATE_CACHE = new PodTemplateCache(new KubernetesSerialization());
+
+    private BenchmarkFixtures() { }
+
+    static List<PodSet> createPodSets(int podSetCount, int replicas) {
+        List<PodSet> podSets = new ArrayList<>(podSetCount);
+        for (int index = 0; index < podSetCount; index++) {
+            PodSet podSet = new PodSet();
+            podSet.setMetadata(new ObjectMetaBuilder()
+                    .withName("podset-" + index)
+                    .withNamespace(NAMESPACE)
+                    .withUid("podset-uid-" + index)
+                    .withResourceVersion("1")
+                    .withGeneration(1L)
+                    .build());
+            PodSetSpec podSetSpec = new PodSetSpec();
+            podSetSpec.setReplicas(replicas);
+            podSet.setSpec(podSetSpec);
+            podSets.add(podSet);
+        }
+        return podSets;
+    }
+
+    static List<Pod> createPods(List<PodSet> podSets, int podsPerPodSet) {
+        List<Pod> pods = new ArrayList<>(podSets.size() * podsPerPodSet);
+        for (PodSet podSet : podSets) {
+            for (int index = 0; index < podsPerPodSet; index++) {
+                pods.add(createPod(podSet, podSet.getMetadata().getName() + "-pod" + index));
+            }
+        }
+        return pods;
+    }
+
+    /**
+     * Creates a running and ready pod the way controller does, so that it carries hash of PodSet's
+     * current template and isn't considered outdated.
+     *
+     * @param podSet owner of the pod
+     * @param name pod name
+     * @return pod
+     */
+    static Pod createPod(PodSet podSet, String name) {
+        Pod pod = TEMPLATE_CACHE.newPod(podSet);
+        return new PodBuilder(pod)
+                .editMetadata()
+                  .withName(name)
+                  .withGenerateName(null)
+                  .withUid(name + "-uid")
+                  .withResourceVersion("1")
+                .endMetadata()
+                .withNewStatus()
+                  .withPhase("Running")
+                  .addNewCondition().withType("Ready").withStatus("True").endCondition()
+                .endStatus()
+                .build();
+    }
+
+    /**
+     * Creates an informer whose initial list is served from memory. Watch is never established, so
+     * the informer keeps the listed items and never receives further events.
+     *
+     * @param type resource type
+     * @param items items returned by initial list
+     * @param <T> resource type
+     * @return informer which has not been started yet
+     */
+    static <T extends HasMetadata> SharedIndexInformer<T> inMemoryInformer(Class<T> type, List<T> items) {
+        ListerWatcher<T, KubernetesResourceList<T>> listerWatcher = new ListerWatcher<T, KubernetesResourceList<T>>() {
+            @Override
+            public CompletableFuture<AbstractWatchManager<T>> submitWatch(ListOptions listOptions, Watcher<T> watcher) {
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public CompletableFuture<KubernetesResourceList<T>> submitList(ListOptions listOptions) {
+                DefaultKubernetesResourceList<T> list = new DefaultKubernetesResourceList<>();
+                list.setMetadata(new ListMetaBuilder().withResourceVersion("1").build());
+                list.setItems(items);
+                return CompletableFuture.completedFuture(list);
+            }
+
+            @Override
+            public Long getLimit() {
+                return null;
+            }
+
+            @Override
+            public int getWatchReconnectInterval() {
+                return (int) TimeUnit.MINUTES.toMillis(1);
+            }
+
+            @Override
+            public String getApiEndpointPath() {
+                return type.getSimpleName();
+            }
+        };
+        // Handlers are notified on the thread populating the cache
+        return new DefaultSharedIndexInformer<>(type, listerWatcher, 0, Runnable::run);
+    }
+
+    /**
+     * Starts informers and waits until their caches hold the listed items. Start futures are not
+     * awaited as they only complete once a watch is established.
+     *
+     * @param informers informers created by {@link #inMemoryInformer(Class, List)}
+     */
+    static void startAndSync(SharedIndexInformer<?>... informers) {
+        for (SharedIndexInformer<?> informer : informers) {
+            informer.start();
+        }
+        for (SharedIndexInformer<?> informer : informers) {
+            while (!informer.hasSynced()) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Stubs a client interface: every DSL call returns another stub, terminal calls return null
+     * (or zero/false) without doing anything.
+     *
+     * @param type client interface
+     * @param <T> client type
+     * @return stubbed client
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stubClient(Class<T> type) {
+        return (T) Proxy.newProxyInstance(BenchmarkFixtures.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return type.getSimpleName() + " stub";
+                }
+            }
+            if (returnType == KubernetesSerialization.class) {
+                return new KubernetesSerialization();
+            }
+            if (returnType.isInterface() && returnType.getName().startsWith("io.fabric8.kubernetes.client.")) {
+                return stubClient(returnType);
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType.isPrimitive() && returnType != void.class) {
+                return returnType == long.class ? (Object) 0L : (Object) 0;
+            }
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    static MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> stubPodSetClient() {
+        return stubClient(MixedOperation.class);
+    }
+
+    static KubernetesClient stubKubernetesClient() {
+        return stubClient(KubernetesClient.class);
+    }
+
+    static PodSetController createController(SharedIndexInformer<Pod> podInformer, SharedIndexInformer<PodSet> podSetInformer) {
+        return new PodSetController(stubKubernetesClient(), stubPodSetClient(), podInformer, podSetInformer, NAMESPACE);
+    }
+}
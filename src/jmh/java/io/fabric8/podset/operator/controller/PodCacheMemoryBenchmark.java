@@ -0,0 +1,106 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntryBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodSpecBuilder;
+import io.fabric8.kubernetes.api.model.PodStatusBuilder;
+import io.fabric8.kubernetes.client.informers.cache.BasicItemStore;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.informers.cache.ItemStore;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+
+import java.util.Collections;
+import java.util.function.Supplier;
+
+/**
+ * Compares heap used per cached pod by default informer store and {@link TrimmingPodItemStore}.
+ * Pods are deserialized from JSON one by one, the same way informer receives them.
+ * <p>
+ * Retained heap isn't something JMH measures, so this is a plain main run in a JVM of its own by benchmarks profile:
+ * <p>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.mainClass=io.fabric8.podset.operator.controller.PodCacheMemoryBenchmark
+ * <p>
+ * Default heap of 4g (-Dbenchmark.maxHeap) fits 100k untrimmed pods.
+ */
+public class PodCacheMemoryBenchmark {
+    private static final int[] POD_COUNTS = {10_000, 50_000, 100_000};
+    private static final KubernetesSerialization serialization = new KubernetesSerialization();
+
+    public static void main(String[] args) {
+        String podJson = serialization.asJson(createRealisticPod());
+        System.out.printf("%-10s %-12s %-15s%n", "pods", "store", "bytes/pod");
+        for (int podCount : POD_COUNTS) {
+            measure(podCount, podJson, "default", () -> new BasicItemStore<>(Cache::metaNamespaceKeyFunc));
+            measure(podCount, podJson, "trimming", TrimmingPodItemStore::new);
+        }
+    }
+
+    private static void measure(int podCount, String podJson, String storeName, Supplier<ItemStore<Pod>> storeSupplier) {
+        long heapBefore = usedHeap();
+        ItemStore<Pod> store = storeSupplier.get();
+        for (int index = 0; index < podCount; index++) {
+            Pod pod = serialization.unmarshal(podJson.replace("example-podset-pod", "example-podset-pod" + index), Pod.class);
+            store.put(store.getKey(pod), pod);
+        }
+        long heapAfter = usedHeap();
+        System.out.printf("%-10d %-12s %-15d%n", store.size(), storeName, (heapAfter - heapBefore) / podCount);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int index = 0; index < 3; index++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Pod createRealisticPod() {
+        PodSpecBuilder spec = new PodSpecBuilder().withNodeName("node-1").withServiceAccountName("default");
+        for (int index = 0; index < 2; index++) {
+            ContainerBuilder container = new ContainerBuilder()
+                    .withName("container-" + index)
+                    .withImage("quay.io/example/application:1.0." + index)
+                    .withCommand("sleep", "3600")
+                    .addNewVolumeMount().withName("kube-api-access").withMountPath("/var/run/secrets/kubernetes.io/serviceaccount").withReadOnly(true).endVolumeMount()
+                    .withNewResources().addToRequests("cpu", new io.fabric8.kubernetes.api.model.Quantity("100m")).endResources();
+            for (int env = 0; env < 10; env++) {
+                container.addNewEnv().withName("ENVIRONMENT_VARIABLE_" + env).withValue("value-of-environment-variable-" + env).endEnv();
+            }
+            spec.addToContainers(container.build());
+        }
+        spec.addNewVolume().withName("kube-api-access").withNewProjected().addNewSource().withNewServiceAccountToken().withPath("token").withExpirationSeconds(3607L).endServiceAccountToken().endSource().endProjected().endVolume();
+
+        return new PodBuilder()
+                .withNewMetadata()
+                  .withName("example-podset-pod")
+                  .withGenerateName("example-podset-pod")
+                  .withNamespace("ns1")
+                  .withUid("0800cff3-9d80-11ea-8973-0e13a02d8ebd")
+                  .withResourceVersion("123456")
+                  .withCreationTimestamp("2026-01-01T00:00:00Z")
+                  .addToLabels(PodSetController.APP_LABEL, "example-podset")
+                  .addToLabels(PodSetController.MANAGED_BY_LABEL, PodSetController.MANAGED_BY_VALUE)
+                  .addToAnnotations("kubectl.kubernetes.io/last-applied-configuration", String.join("", Collections.nCopies(20, "{\"apiVersion\":\"v1\",\"kind\":\"Pod\"}")))
+                  .addNewOwnerReference().withController(true).withKind("PodSet").withApiVersion("demo.fabric8.io/v1alpha1").withName("example-podset").withUid("1800cff3-9d80-11ea-8973-0e13a02d8ebd").endOwnerReference()
+                  .addToManagedFields(new ManagedFieldsEntryBuilder().withManager("kubelet").withOperation("Update").withApiVersion("v1").withTime("2026-01-01T00:00:00Z").withFieldsType("FieldsV1")
+                          .withNewFieldsV1().addToAdditionalProperties("f:status", Collections.singletonMap("f:conditions", Collections.singletonMap("k:{\"type\":\"Ready\"}", Collections.emptyMap()))).endFieldsV1().build())
+                  .addToManagedFields(new ManagedFieldsEntryBuilder().withManager("podset-operator").withOperation("Update").withApiVersion("v1").withTime("2026-01-01T00:00:00Z").withFieldsType("FieldsV1")
+                          .withNewFieldsV1().addToAdditionalProperties("f:metadata", Collections.singletonMap("f:labels", Collections.singletonMap("f:app", Collections.emptyMap()))).endFieldsV1().build())
+                .endMetadata()
+                .withSpec(spec.build())
+                .withStatus(new PodStatusBuilder()
+                        .withPhase("Running")
+                        .withHostIP("10.0.0.1")
+                        .withPodIP("10.244.0.12")
+                        .withStartTime("2026-01-01T00:00:01Z")
+                        .addNewCondition().withType("Ready").withStatus("True").endCondition()
+                        .addNewCondition().withType("ContainersReady").withStatus("True").endCondition()
+                        .addNewCondition().withType("PodScheduled").withStatus("True").endCondition()
+                        .addNewContainerStatus().withName("container-0").withImage("quay.io/example/application:1.0.0").withImageID("quay.io/example/application@sha256:0123456789abcdef").withReady(true).withRestartCount(0).withNewState().withNewRunning().withStartedAt("2026-01-01T00:00:02Z").endRunning().endState().endContainerStatus()
+                        .addNewContainerStatus().withName("container-1").withImage("quay.io/example/application:1.0.1").withImageID("quay.io/example/application@sha256:fedcba9876543210").withReady(true).withRestartCount(0).withNewState().withNewRunning().withStartedAt("2026-01-01T00:00:02Z").endRunning().endState().endContainerStatus()
+                        .build())
+                .build();
+    }
+}
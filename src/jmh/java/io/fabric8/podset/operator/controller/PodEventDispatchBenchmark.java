@@ -0,0 +1,77 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures per event cost of mapping a pod to its owning PodSet and enqueuing it. Keys stay
+ * queued as there are no workers, so enqueue only hits the workqueue's deduplication.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class PodEventDispatchBenchmark {
+    @Param({"10", "1000"})
+    private int podSetCount;
+
+    private SharedIndexInformer<Pod> podInformer;
+    private SharedIndexInformer<PodSet> podSetInformer;
+    private PodSetController podSetController;
+    private List<Pod> pods;
+    private int nextPod;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<PodSet> podSets = BenchmarkFixtures.createPodSets(podSetCount, 10);
+        pods = BenchmarkFixtures.createPods(podSets, 10);
+        Collections.shuffle(pods);
+        podInformer = BenchmarkFixtures.inMemoryInformer(Pod.class, Collections.emptyList());
+        podSetInformer = BenchmarkFixtures.inMemoryInformer(PodSet.class, podSets);
+        podSetController = BenchmarkFixtures.createController(podInformer, podSetInformer);
+        BenchmarkFixtures.startAndSync(podInformer, podSetInformer);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        podSetController.stop(0);
+        podInformer.stop();
+        podSetInformer.stop();
+    }
+
+    @Benchmark
+    public OwnerReference getControllerOf() {
+        return Indexers.getControllerOf(nextPod());
+    }
+
+    @Benchmark
+    public void handlePodObject() {
+        podSetController.handlePodObject(nextPod());
+    }
+
+    private Pod nextPod() {
+        nextPod = (nextPod + 1) % pods.size();
+        return pods.get(nextPod);
+    }
+}
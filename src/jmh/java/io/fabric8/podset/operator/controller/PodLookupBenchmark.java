@@ -0,0 +1,86 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.informers.cache.Lister;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ways of finding the pods of one PodSet in pod informer cache: scanning the whole
+ * cache by label like the original podCountByLabel() did, app label index and owner UID index
+ * used by reconcile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class PodLookupBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int podCount;
+
+    @Param({"100"})
+    private int podsPerPodSet;
+
+    private SharedIndexInformer<Pod> podInformer;
+    private Lister<Pod> podLister;
+    private PodSet podSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<PodSet> podSets = BenchmarkFixtures.createPodSets(Math.max(1, podCount / podsPerPodSet), podsPerPodSet);
+        podSet = podSets.get(podSets.size() / 2);
+        podInformer = BenchmarkFixtures.inMemoryInformer(Pod.class, BenchmarkFixtures.createPods(podSets, podsPerPodSet));
+        podInformer.addIndexers(Collections.singletonMap(Indexers.OWNER_UID_INDEX, Indexers::ownerUidIndexFunc));
+        podInformer.addIndexers(Collections.singletonMap(Indexers.APP_LABEL_INDEX, Indexers::appLabelIndexFunc));
+        BenchmarkFixtures.startAndSync(podInformer);
+        podLister = new Lister<>(podInformer.getIndexer(), BenchmarkFixtures.NAMESPACE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        podInformer.stop();
+    }
+
+    @Benchmark
+    public List<Pod> scanByLabel() {
+        List<Pod> pods = new ArrayList<>();
+        for (Pod pod : podLister.list()) {
+            if (podSet.getMetadata().getName().equals(pod.getMetadata().getLabels().get(PodSetController.APP_LABEL))) {
+                pods.add(pod);
+            }
+        }
+        return pods;
+    }
+
+    @Benchmark
+    public List<Pod> appLabelIndex() {
+        return podInformer.getIndexer().byIndex(Indexers.APP_LABEL_INDEX,
+                Cache.namespaceKeyFunc(podSet.getMetadata().getNamespace(), podSet.getMetadata().getName()));
+    }
+
+    @Benchmark
+    public List<Pod> ownerUidIndex() {
+        return podInformer.getIndexer().byIndex(Indexers.OWNER_UID_INDEX, podSet.getMetadata().getUid());
+    }
+}
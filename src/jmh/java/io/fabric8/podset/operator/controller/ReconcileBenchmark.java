@@ -0,0 +1,67 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reconcile() of a PodSet whose pods are all up and running, which is what every resync
+ * and most pod events end up doing. API calls go to a stubbed client which returns immediately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class ReconcileBenchmark {
+    @Param({"10", "100", "1000"})
+    private int replicas;
+
+    @Param({"100"})
+    private int podSetCount;
+
+    private SharedIndexInformer<Pod> podInformer;
+    private SharedIndexInformer<PodSet> podSetInformer;
+    private PodSetController podSetController;
+    private List<PodSet> podSets;
+    private int nextPodSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        podSets = BenchmarkFixtures.createPodSets(podSetCount, replicas);
+        podInformer = BenchmarkFixtures.inMemoryInformer(Pod.class, BenchmarkFixtures.createPods(podSets, replicas));
+        podSetInformer = BenchmarkFixtures.inMemoryInformer(PodSet.class, podSets);
+        podSetController = BenchmarkFixtures.createController(podInformer, podSetInformer);
+        BenchmarkFixtures.startAndSync(podInformer, podSetInformer);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        podSetController.stop(0);
+        podInformer.stop();
+        podSetInformer.stop();
+    }
+
+    @Benchmark
+    public void reconcile() {
+        nextPodSet = (nextPodSet + 1) % podSets.size();
+        podSetController.reconcile(podSets.get(nextPodSet));
+    }
+}
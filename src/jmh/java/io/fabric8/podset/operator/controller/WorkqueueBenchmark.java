@@ -0,0 +1,73 @@
+package io.fabric8.podset.operator.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures workqueue throughput with several threads adding and processing keys at the same time,
+ * like informer event handlers and workers do. Override number of threads with -t.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class WorkqueueBenchmark {
+    private static final int KEYS_PER_THREAD = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Queue {
+        private final AtomicInteger threadCount = new AtomicInteger();
+        private RateLimitingQueue<String> workqueue;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            workqueue = new RateLimitingQueue<>(RateLimitingQueue.defaultControllerRateLimiter());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            workqueue.shutDown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private String[] keys;
+        private int nextKey;
+
+        @Setup(Level.Trial)
+        public void setUp(Queue queue) {
+            // Every thread has keys of its own, so that queue never runs dry while a thread waits in get()
+            int thread = queue.threadCount.getAndIncrement();
+            keys = new String[KEYS_PER_THREAD];
+            for (int index = 0; index < keys.length; index++) {
+                keys[index] = "ns" + thread + "/podset-" + index;
+            }
+        }
+    }
+
+    @Benchmark
+    public String addGetDone(Queue queue, Keys keys) throws InterruptedException {
+        keys.nextKey = (keys.nextKey + 1) % keys.keys.length;
+        queue.workqueue.add(keys.keys[keys.nextKey]);
+        String key = queue.workqueue.get();
+        queue.workqueue.done(key);
+        return key;
+    }
+}
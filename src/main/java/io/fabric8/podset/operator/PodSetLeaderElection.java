@@ -0,0 +1,129 @@
+package io.fabric8.podset.operator;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderCallbacks;
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderElectionConfigBuilder;
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderElector;
+import io.fabric8.kubernetes.client.extended.leaderelection.resourcelock.LeaseLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lease based leader election among operator replicas. Only leader reconciles PodSets, other
+ * replicas stay in hot standby with their informer caches synced so that they can take over
+ * without listing everything again.
+ */
+public class PodSetLeaderElection {
+    public static final String DEFAULT_LEASE_NAME = "podset-operator-lock";
+    public static final Duration DEFAULT_LEASE_DURATION = Duration.ofSeconds(15);
+    public static final Duration DEFAULT_RENEW_DEADLINE = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_RETRY_PERIOD = Duration.ofSeconds(2);
+    private static final Logger logger = LoggerFactory.getLogger(PodSetLeaderElection.class.getSimpleName());
+
+    private final String identity;
+    private final LeaderElector leaderElector;
+    private final CompletableFuture<Void> leading = new CompletableFuture<>();
+    private final Runnable onStopLeading;
+    private volatile CompletableFuture<?> election;
+    private volatile boolean stopped;
+    private volatile long electionStartedNanos;
+    private volatile long leadingSinceNanos;
+
+    /**
+     * Creates leader election.
+     *
+     * @param client Kubernetes client
+     * @param leaseNamespace namespace of the Lease
+     * @param leaseName name of the Lease
+     * @param identity identity of this replica, usually pod name
+     * @param leaseDuration how long standby replicas wait before taking over a lease which isn't renewed
+     * @param renewDeadline how long leader keeps trying to renew lease before giving up leadership
+     * @param retryPeriod interval between attempts to acquire/renew lease
+     * @param onStopLeading called when this replica loses leadership
+     */
+    public PodSetLeaderElection(KubernetesClient client, String leaseNamespace, String leaseName, String identity,
+                                Duration leaseDuration, Duration renewDeadline, Duration retryPeriod, Runnable onStopLeading) {
+        this.identity = identity;
+        this.onStopLeading = onStopLeading;
+        logger.info("Leader election using Lease {}/{} as {} (leaseDuration={}, renewDeadline={}, retryPeriod={})",
+                leaseNamespace, leaseName, identity, leaseDuration, renewDeadline, retryPeriod);
+        this.leaderElector = client.leaderElector()
+                .withConfig(new LeaderElectionConfigBuilder()
+                        .withName(leaseName)
+                        .withLock(new LeaseLock(leaseNamespace, leaseName, identity))
+                        .withLeaseDuration(leaseDuration)
+                        .withRenewDeadline(renewDeadline)
+                        .withRetryPeriod(retryPeriod)
+                        .withReleaseOnCancel(true)
+                        .withLeaderCallbacks(new LeaderCallbacks(this::startedLeading, this::stoppedLeading, this::newLeader))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Starts taking part in leader election.
+     *
+     * @return future which completes once this replica becomes leader
+     */
+    public CompletableFuture<Void> start() {
+        electionStartedNanos = System.nanoTime();
+        election = leaderElector.start();
+        election.whenComplete((result, throwable) -> {
+            if (throwable != null && !leading.isDone()) {
+                leading.completeExceptionally(throwable);
+            }
+        });
+        return leading;
+    }
+
+    /**
+     * Gets time elapsed since this replica acquired the lease.
+     *
+     * @return milliseconds since leadership was acquired, -1 if not leading
+     */
+    public long getLeadingMillis() {
+        if (leadingSinceNanos == 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - leadingSinceNanos);
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    /**
+     * Stops taking part in leader election. Lease is released if this replica holds it, so that a
+     * standby replica takes over without waiting for lease to expire. Callback for losing leadership
+     * isn't called, as leadership is given up on purpose.
+     */
+    public void stop() {
+        stopped = true;
+        CompletableFuture<?> runningElection = election;
+        if (runningElection != null) {
+            runningElection.cancel(true);
+        }
+    }
+
+    private void startedLeading() {
+        leadingSinceNanos = System.nanoTime();
+        logger.info("{} became leader after {} ms in standby", identity, TimeUnit.NANOSECONDS.toMillis(leadingSinceNanos - electionStartedNanos));
+        leading.complete(null);
+    }
+
+    private void stoppedLeading() {
+        logger.warn("{} stopped leading after {} ms", identity, getLeadingMillis());
+        leadingSinceNanos = 0;
+        if (!stopped) {
+            onStopLeading.run();
+        }
+    }
+
+    private void newLeader(String newLeader) {
+        logger.info("Current leader is {}", newLeader);
+    }
+}
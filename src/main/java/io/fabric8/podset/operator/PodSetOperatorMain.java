@@ -1,20 +1,48 @@
 package io.fabric8.podset.operator;
 
+import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesResourceList;
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientBuilder;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.PodResource;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.impl.BaseClient;
 import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
-import io.fabric8.kubernetes.client.informers.SharedInformerFactory;
+import io.fabric8.kubernetes.client.informers.impl.ListerWatcher;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.fabric8.podset.operator.controller.ExecutionMode;
+import io.fabric8.podset.operator.controller.InformerSnapshot;
 import io.fabric8.podset.operator.controller.PodSetController;
+import io.fabric8.podset.operator.controller.PodSetControllerMetrics;
+import io.fabric8.podset.operator.controller.RateLimiter;
+import io.fabric8.podset.operator.controller.RateLimitingQueue;
+import io.fabric8.podset.operator.controller.TrimmingPodItemStore;
+import io.fabric8.podset.operator.metrics.MetricsRegistry;
+import io.fabric8.podset.operator.metrics.MetricsServer;
 import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import io.fabric8.podset.operator.tracing.JsonTraceExporter;
+import io.fabric8.podset.operator.tracing.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Future;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -24,6 +52,7 @@ import java.util.concurrent.ExecutionException;
  */
 public class PodSetOperatorMain {
     public static final Logger logger = LoggerFactory.getLogger(PodSetOperatorMain.class.getSimpleName());
+    private static final int DEFAULT_SNAPSHOT_INTERVAL_SECONDS = 60;
 
     public static void main(String[] args) {
         try (KubernetesClient client = new KubernetesClientBuilder().build()) {
@@ -33,23 +62,246 @@ public class PodSetOperatorMain {
                 namespace = "default";
             }
 
-            logger.info("Using namespace : {}", namespace);
+            // Either a namespace, a comma separated list of namespaces or * for all namespaces
+            Set<String> watchedNamespaces = parseNamespaces(getStringFromEnv("PODSET_WATCH_NAMESPACE", namespace));
+            MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient = client.resources(PodSet.class);
+            // Informers only cache objects in watched namespace, and only pods created by operator when asked to
+            FilterWatchListDeletable<Pod, PodList, PodResource> pods;
+            FilterWatchListDeletable<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSets;
+            String informerNamespace = null;
+            String podLabelSelector = null;
+            if (watchedNamespaces.size() == 1) {
+                namespace = watchedNamespaces.iterator().next();
+                logger.info("Using namespace : {}", namespace);
+                informerNamespace = namespace;
+                pods = client.pods().inNamespace(namespace);
+                podSets = podSetClient.inNamespace(namespace);
+            } else {
+                // Informers can only watch one namespace or all of them, controller ignores other namespaces
+                logger.info("Using namespaces : {}", watchedNamespaces.isEmpty() ? "all" : watchedNamespaces);
+                pods = client.pods().inAnyNamespace();
+                podSets = podSetClient.inAnyNamespace();
+            }
+            if (getBooleanFromEnv("PODSET_MANAGED_PODS_ONLY", false)) {
+                pods = pods.withLabel(PodSetController.MANAGED_BY_LABEL, PodSetController.MANAGED_BY_VALUE);
+                podLabelSelector = PodSetController.MANAGED_BY_LABEL + "=" + PodSetController.MANAGED_BY_VALUE;
+            }
+            // Informer resync would fire an update of every PodSet at once, controller spreads resyncs instead
+            SharedIndexInformer<Pod> podSharedIndexInformer;
+            SharedIndexInformer<PodSet> podSetSharedIndexInformer;
+            String snapshotDirectory = getStringFromEnv("PODSET_SNAPSHOT_DIR", null);
+            ListerWatcher<Pod, PodList> podListerWatcher = asListerWatcher(pods);
+            ListerWatcher<PodSet, KubernetesResourceList<PodSet>> podSetListerWatcher = asListerWatcher(podSets);
+            if (snapshotDirectory != null && (podListerWatcher == null || podSetListerWatcher == null)) {
+                logger.warn("Kubernetes client doesn't allow listing and watching for informers from snapshots, ignoring PODSET_SNAPSHOT_DIR");
+                snapshotDirectory = null;
+            }
+            InformerSnapshot<Pod> podSnapshot = null;
+            InformerSnapshot<PodSet> podSetSnapshot = null;
+            if (snapshotDirectory != null) {
+                // Warm start: informers load cached objects from disk and resume watching where snapshot left off
+                KubernetesSerialization serialization = client.getKubernetesSerialization();
+                Executor informerExecutor = client.adapt(BaseClient.class).getExecutor();
+                // Snapshot taken with other namespaces or pod selector is ignored
+                podSnapshot = new InformerSnapshot<>(Paths.get(snapshotDirectory, "pods.json.gz"), Pod.class,
+                        InformerSnapshot.scope(informerNamespace, podLabelSelector), serialization);
+                podSetSnapshot = new InformerSnapshot<>(Paths.get(snapshotDirectory, "podsets.json.gz"), PodSet.class,
+                        InformerSnapshot.scope(informerNamespace, null), serialization);
+                long catchUpTimeoutMillis = TimeUnit.SECONDS.toMillis(getIntFromEnv("PODSET_SNAPSHOT_CATCH_UP_SECONDS",
+                        (int) TimeUnit.MILLISECONDS.toSeconds(InformerSnapshot.DEFAULT_CATCH_UP_TIMEOUT_MILLIS)));
+                podSnapshot.setCatchUpTimeoutMillis(catchUpTimeoutMillis);
+                podSetSnapshot.setCatchUpTimeoutMillis(catchUpTimeoutMillis);
+                podSharedIndexInformer = podSnapshot.createInformer(podListerWatcher, 0, informerExecutor);
+                podSetSharedIndexInformer = podSetSnapshot.createInformer(podSetListerWatcher, 0, informerExecutor);
+            } else {
+                podSharedIndexInformer = pods.runnableInformer(0);
+                podSetSharedIndexInformer = podSets.runnableInformer(0);
+            }
+            if (getBooleanFromEnv("PODSET_TRIM_POD_CACHE", false)) {
+                podSharedIndexInformer.itemStore(new TrimmingPodItemStore());
+            }
+            ExecutionMode executionMode = ExecutionMode.platformThreads();
+            int workerCount = PodSetController.DEFAULT_WORKER_COUNT;
+            if (getBooleanFromEnv("PODSET_VIRTUAL_THREADS", false)) {
+                executionMode = ExecutionMode.virtualThreads(
+                        getIntFromEnv("PODSET_MAX_RECONCILES_PER_NAMESPACE", ExecutionMode.DEFAULT_MAX_RECONCILES_PER_NAMESPACE),
+                        getIntFromEnv("PODSET_MAX_API_CALLS_PER_VERB", ExecutionMode.DEFAULT_MAX_API_CALLS_PER_VERB));
+                if (executionMode.isVirtualThreads()) {
+                    // Not when falling back to platform threads, those would be hundreds of idle threads
+                    workerCount = ExecutionMode.DEFAULT_VIRTUAL_WORKER_COUNT;
+                }
+            }
+            workerCount = getIntFromEnv("PODSET_WORKERS", workerCount);
+            RateLimiter<String> rateLimiter = RateLimitingQueue.defaultControllerRateLimiter(
+                    getDoubleFromEnv("PODSET_QUEUE_QPS", 10), getIntFromEnv("PODSET_QUEUE_BURST", 100));
+            MetricsRegistry metricsRegistry = new MetricsRegistry();
+            PodSetController podSetController = new PodSetController(client, podSetClient, podSharedIndexInformer, podSetSharedIndexInformer,
+                    watchedNamespaces.size() == 1 ? namespace : null, workerCount, rateLimiter, new PodSetControllerMetrics(metricsRegistry), executionMode);
+            podSetController.setNamespaces(watchedNamespaces);
+            if (podSnapshot != null) {
+                podSetController.setCachesCaughtUp(CompletableFuture.allOf(podSnapshot.caughtUp(), podSetSnapshot.caughtUp()));
+            }
+            podSetController.setFinalizerEnabled(getBooleanFromEnv("PODSET_FINALIZER_ENABLED", false));
+            int slowReconcileMillis = getIntFromEnv("PODSET_TRACE_SLOW_RECONCILE_MILLIS", -1);
+            if (slowReconcileMillis >= 0) {
+                String traceFile = getStringFromEnv("PODSET_TRACE_FILE", null);
+                podSetController.setTracer(new Tracer(slowReconcileMillis,
+                        new JsonTraceExporter(traceFile != null ? Paths.get(traceFile) : null, client.getKubernetesSerialization())));
+            }
+            podSetController.setResyncPeriodMillis(TimeUnit.SECONDS.toMillis(
+                    getIntFromEnv("PODSET_RESYNC_PERIOD_SECONDS", (int) TimeUnit.MILLISECONDS.toSeconds(PodSetController.DEFAULT_RESYNC_PERIOD_MILLIS))));
+            // Started before informers, so that readiness probe reports caches which aren't synced yet
+            new MetricsServer(getIntFromEnv("PODSET_METRICS_PORT", MetricsServer.DEFAULT_PORT), metricsRegistry, podSetController::hasSynced).start();
+            long informersStartedNanos = System.nanoTime();
+            CompletableFuture.allOf(podSharedIndexInformer.start().toCompletableFuture(),
+                    podSetSharedIndexInformer.start().toCompletableFuture()).get();
+            logger.info("Informer caches synced in {} ms: {} Pods, {} PodSets",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - informersStartedNanos),
+                    podSharedIndexInformer.getStore().list().size(), podSetSharedIndexInformer.getStore().list().size());
 
-            SharedInformerFactory informerFactory = client.informers();
+            PodSetSharding sharding = null;
+            PodSetLeaderElection leaderElection = null;
+            if (getBooleanFromEnv("PODSET_SHARDING_ENABLED", false)) {
+                // Every replica reconciles its own slice of PodSets, so there is no leader
+                sharding = new PodSetSharding(client,
+                        getStringFromEnv("PODSET_LEASE_NAMESPACE", namespace),
+                        getStringFromEnv("PODSET_SHARD_GROUP", PodSetSharding.DEFAULT_SHARD_GROUP),
+                        getStringFromEnv("HOSTNAME", UUID.randomUUID().toString()),
+                        Duration.ofSeconds(getIntFromEnv("PODSET_LEASE_DURATION_SECONDS", (int) PodSetLeaderElection.DEFAULT_LEASE_DURATION.getSeconds())),
+                        Duration.ofSeconds(getIntFromEnv("PODSET_LEASE_RETRY_PERIOD_SECONDS", (int) PodSetLeaderElection.DEFAULT_RETRY_PERIOD.getSeconds())),
+                        podSetController::enqueueAllPodSets);
+                podSetController.setShardFilter(sharding::owns);
+                PodSetSharding shardMembership = sharding;
+                metricsRegistry.gauge("podset_shard_members", "Operator replicas sharing PodSets", () -> shardMembership.getMembers().size());
+                sharding.start();
+                logger.info("Reconciling a slice of PodSets shared among {}", sharding.getMembers());
+            } else if (getBooleanFromEnv("PODSET_LEADER_ELECTION_ENABLED", false)) {
+                // Informers are started before acquiring lease, so standby replicas keep warm caches
+                leaderElection = new PodSetLeaderElection(client,
+                        getStringFromEnv("PODSET_LEASE_NAMESPACE", namespace),
+                        getStringFromEnv("PODSET_LEASE_NAME", PodSetLeaderElection.DEFAULT_LEASE_NAME),
+                        getStringFromEnv("HOSTNAME", UUID.randomUUID().toString()),
+                        Duration.ofSeconds(getIntFromEnv("PODSET_LEASE_DURATION_SECONDS", (int) PodSetLeaderElection.DEFAULT_LEASE_DURATION.getSeconds())),
+                        Duration.ofSeconds(getIntFromEnv("PODSET_LEASE_RENEW_DEADLINE_SECONDS", (int) PodSetLeaderElection.DEFAULT_RENEW_DEADLINE.getSeconds())),
+                        Duration.ofSeconds(getIntFromEnv("PODSET_LEASE_RETRY_PERIOD_SECONDS", (int) PodSetLeaderElection.DEFAULT_RETRY_PERIOD.getSeconds())),
+                        () -> {
+                            // Let Kubernetes restart this replica, it'll come back as standby
+                            logger.error("Lost leadership, exiting");
+                            System.exit(1);
+                        });
+                PodSetLeaderElection election = leaderElection;
+                metricsRegistry.gauge("podset_leader", "Whether this replica holds the leader election Lease",
+                        () -> election.getLeadingMillis() >= 0 ? 1 : 0);
+                logger.info("Waiting to become leader, caches are synced");
+                leaderElection.start().get();
+                logger.info("Started reconciling {} ms after acquiring lease", leaderElection.getLeadingMillis());
+            }
 
-            MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient = client.resources(PodSet.class);
-            SharedIndexInformer<Pod> podSharedIndexInformer = informerFactory.sharedIndexInformerFor(Pod.class, 10 * 60 * 1000L);
-            SharedIndexInformer<PodSet> podSetSharedIndexInformer = informerFactory.sharedIndexInformerFor(PodSet.class, 10 * 60 * 1000L);
-            PodSetController podSetController = new PodSetController(client, podSetClient, podSharedIndexInformer, podSetSharedIndexInformer, namespace);
-            Future<Void> startedInformersFuture = informerFactory.startAllRegisteredInformers();
-            startedInformersFuture.get();
+            Runnable saveSnapshots = () -> { };
+            if (snapshotDirectory != null) {
+                InformerSnapshot<Pod> podSnapshotToSave = podSnapshot;
+                InformerSnapshot<PodSet> podSetSnapshotToSave = podSetSnapshot;
+                saveSnapshots = () -> {
+                    saveSnapshot(podSnapshotToSave, podSharedIndexInformer);
+                    saveSnapshot(podSetSnapshotToSave, podSetSharedIndexInformer);
+                };
+                long snapshotIntervalSeconds = getIntFromEnv("PODSET_SNAPSHOT_INTERVAL_SECONDS", DEFAULT_SNAPSHOT_INTERVAL_SECONDS);
+                ScheduledExecutorService snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "podset-snapshot");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                snapshotScheduler.scheduleWithFixedDelay(saveSnapshots, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+            }
 
+            PodSetSharding shardingToStop = sharding;
+            PodSetLeaderElection leaderElectionToStop = leaderElection;
+            Runnable saveSnapshotsOnShutdown = saveSnapshots;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    podSetController.stop(PodSetController.DEFAULT_DRAIN_TIMEOUT_MILLIS);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (shardingToStop != null) {
+                        shardingToStop.stop();
+                    }
+                    // Standby replica takes over right away instead of waiting for Lease to expire
+                    if (leaderElectionToStop != null) {
+                        leaderElectionToStop.stop();
+                    }
+                    saveSnapshotsOnShutdown.run();
+                }
+            }, "podset-operator-shutdown"));
             podSetController.run();
-        } catch (KubernetesClientException | ExecutionException exception) {
+        } catch (KubernetesClientException | ExecutionException | TimeoutException exception) {
             logger.error("Kubernetes Client Exception : ", exception);
+        } catch (IOException ioException) {
+            logger.error("Unable to start metrics server : ", ioException);
         } catch (InterruptedException interruptedException) {
             logger.error("Interrupted: ", interruptedException);
             Thread.currentThread().interrupt();
         }
     }
+
+    private static <T extends HasMetadata> void saveSnapshot(InformerSnapshot<T> snapshot, SharedIndexInformer<T> informer) {
+        try {
+            snapshot.save(informer);
+        } catch (IOException ioException) {
+            logger.warn("Unable to save informer snapshot, next start falls back to a full LIST", ioException);
+        }
+    }
+
+    /**
+     * Resource operations of Kubernetes client (BaseOperation, as of fabric8 6.13) list and watch for
+     * runnableInformer() as a ListerWatcher, which is an implementation interface of the client.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends HasMetadata, L extends KubernetesResourceList<T>> ListerWatcher<T, L> asListerWatcher(Object resources) {
+        if (resources instanceof ListerWatcher) {
+            return (ListerWatcher<T, L>) resources;
+        }
+        return null;
+    }
+
+    private static Set<String> parseNamespaces(String value) {
+        Set<String> namespaces = new TreeSet<>();
+        for (String namespace : value.split(",")) {
+            if (namespace.trim().equals("*")) {
+                return Collections.emptySet();
+            }
+            if (!namespace.trim().isEmpty()) {
+                namespaces.add(namespace.trim());
+            }
+        }
+        return namespaces;
+    }
+
+    private static String getStringFromEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+    private static boolean getBooleanFromEnv(String name, boolean defaultValue) {
+        return Boolean.parseBoolean(getStringFromEnv(name, String.valueOf(defaultValue)));
+    }
+
+    private static int getIntFromEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value);
+    }
+
+    private static double getDoubleFromEnv(String name, double defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        return Double.parseDouble(value);
+    }
 }
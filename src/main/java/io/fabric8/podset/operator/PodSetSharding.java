@@ -0,0 +1,211 @@
+package io.fabric8.podset.operator;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.podset.operator.controller.ConsistentHashRing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits PodSets among operator replicas, every replica reconciling its own slice of a consistent
+ * hash ring. Each replica keeps renewing a Lease of its own, labelled with the shard group; replicas
+ * whose Lease isn't renewed for a lease duration drop out of the ring. Expiry is measured with local
+ * clock, from the last time a change of renew time was observed, so replicas don't need synchronized clocks.
+ * A replica which fails to renew its own Lease for a lease duration stops reconciling altogether, since
+ * other members have dropped it by then and took its slice over.
+ */
+public class PodSetSharding {
+    public static final String DEFAULT_SHARD_GROUP = "podset-operator";
+    public static final String SHARD_GROUP_LABEL = "podset.fabric8.io/shard-group";
+    private static final Logger logger = LoggerFactory.getLogger(PodSetSharding.class.getSimpleName());
+
+    private final KubernetesClient client;
+    private final String leaseNamespace;
+    private final String shardGroup;
+    private final String identity;
+    private final Duration leaseDuration;
+    private final Duration retryPeriod;
+    private final Runnable onRebalance;
+    private final Map<String, ObservedLease> observedLeases = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "podset-sharding");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ConsistentHashRing ring;
+    private volatile long lastRenewNanos;
+    private boolean expired;
+
+    /**
+     * Creates sharding.
+     *
+     * @param client Kubernetes client
+     * @param leaseNamespace namespace of member Leases
+     * @param shardGroup name of the group of replicas sharing PodSets, prefix of Lease names
+     * @param identity identity of this replica, usually pod name
+     * @param leaseDuration how long a replica stays in the ring after it stopped renewing its Lease
+     * @param retryPeriod interval between Lease renewals and membership checks
+     * @param onRebalance called after members have changed, e.g. to pick up PodSets this replica now owns
+     */
+    public PodSetSharding(KubernetesClient client, String leaseNamespace, String shardGroup, String identity,
+                          Duration leaseDuration, Duration retryPeriod, Runnable onRebalance) {
+        this.client = client;
+        this.leaseNamespace = leaseNamespace;
+        this.shardGroup = shardGroup;
+        this.identity = identity;
+        this.leaseDuration = leaseDuration;
+        this.retryPeriod = retryPeriod;
+        this.onRebalance = onRebalance;
+        this.ring = new ConsistentHashRing(Collections.singleton(identity));
+        this.lastRenewNanos = System.nanoTime();
+    }
+
+    /**
+     * Joins shard group. Waits for a retry period after creating Lease, so that existing members
+     * have given up PodSets moving to this replica before it starts reconciling them.
+     *
+     * @throws InterruptedException in case the thread gets interrupted while waiting
+     */
+    public void start() throws InterruptedException {
+        logger.info("Joining shard group {} in {} as {} (leaseDuration={}, retryPeriod={})",
+                shardGroup, leaseNamespace, identity, leaseDuration, retryPeriod);
+        renewLease();
+        Thread.sleep(retryPeriod.toMillis());
+        syncMembers();
+        scheduler.scheduleWithFixedDelay(this::heartbeat, retryPeriod.toMillis(), retryPeriod.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Leaves shard group, deleting Lease so that other members take over right away.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+        try {
+            client.leases().inNamespace(leaseNamespace).withName(getLeaseName()).delete();
+        } catch (KubernetesClientException kubernetesClientException) {
+            logger.warn("Unable to delete Lease {}, other members will wait for it to expire", getLeaseName(), kubernetesClientException);
+        }
+    }
+
+    /**
+     * Checks whether this replica should reconcile a PodSet.
+     *
+     * @param key namespace/name of PodSet
+     * @return true if PodSet belongs to this replica's slice, false for every PodSet while own Lease is expired
+     */
+    public boolean owns(String key) {
+        return !isLeaseExpired() && identity.equals(ring.getOwner(key));
+    }
+
+    public Set<String> getMembers() {
+        return ring.getMembers();
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    private void heartbeat() {
+        try {
+            renewLease();
+            syncMembers();
+            if (expired) {
+                expired = false;
+                logger.info("Renewed Lease {} again, resuming reconciles", getLeaseName());
+                // PodSets skipped while Lease was expired need to be picked up again
+                onRebalance.run();
+            }
+        } catch (KubernetesClientException kubernetesClientException) {
+            logger.warn("Unable to renew Lease or list members of shard group {}", shardGroup, kubernetesClientException);
+        } catch (RuntimeException exception) {
+            // Keep heartbeat scheduled whatever happens
+            logger.error("Unexpected error in heartbeat of shard group {}", shardGroup, exception);
+        }
+        if (!expired && isLeaseExpired()) {
+            expired = true;
+            logger.warn("Lease {} not renewed for {}, other members took over, stopping reconciles", getLeaseName(), leaseDuration);
+        }
+    }
+
+    private boolean isLeaseExpired() {
+        // Other members measure expiry from when they observed renewal, which is after it was sent
+        return System.nanoTime() - lastRenewNanos >= leaseDuration.toNanos();
+    }
+
+    void renewLease() {
+        long renewNanos = System.nanoTime();
+        Lease lease = new LeaseBuilder()
+                .withNewMetadata()
+                  .withName(getLeaseName())
+                  .withNamespace(leaseNamespace)
+                  .addToLabels(SHARD_GROUP_LABEL, shardGroup)
+                .endMetadata()
+                .withNewSpec()
+                  .withHolderIdentity(identity)
+                  .withLeaseDurationSeconds((int) leaseDuration.getSeconds())
+                  .withRenewTime(ZonedDateTime.now())
+                .endSpec()
+                .build();
+        client.leases().inNamespace(leaseNamespace).resource(lease).createOr(existing -> existing.update());
+        lastRenewNanos = renewNanos;
+    }
+
+    private synchronized void syncMembers() {
+        long nowNanos = System.nanoTime();
+        Set<String> members = new HashSet<>();
+        members.add(identity);
+        Set<String> seenLeases = new HashSet<>();
+        for (Lease lease : client.leases().inNamespace(leaseNamespace).withLabel(SHARD_GROUP_LABEL, shardGroup).list().getItems()) {
+            String holder = lease.getSpec() != null ? lease.getSpec().getHolderIdentity() : null;
+            if (holder == null) {
+                continue;
+            }
+            seenLeases.add(holder);
+            ObservedLease observedLease = observedLeases.get(holder);
+            ZonedDateTime renewTime = lease.getSpec().getRenewTime();
+            if (observedLease == null || !Objects.equals(observedLease.renewTime, renewTime)) {
+                observedLease = new ObservedLease(renewTime, nowNanos);
+                observedLeases.put(holder, observedLease);
+            }
+            if (nowNanos - observedLease.observedNanos < leaseDuration.toNanos()) {
+                members.add(holder);
+            }
+        }
+        observedLeases.keySet().retainAll(seenLeases);
+
+        if (!members.equals(ring.getMembers())) {
+            ConsistentHashRing newRing = new ConsistentHashRing(members);
+            logger.info("Members of shard group {} changed from {} to {}", shardGroup, ring.getMembers(), newRing.getMembers());
+            ring = newRing;
+            onRebalance.run();
+        }
+    }
+
+    private String getLeaseName() {
+        return shardGroup + "-" + identity;
+    }
+
+    private static class ObservedLease {
+        private final ZonedDateTime renewTime;
+        private final long observedNanos;
+
+        ObservedLease(ZonedDateTime renewTime, long observedNanos) {
+            this.renewTime = renewTime;
+            this.observedNanos = observedNanos;
+        }
+    }
+}
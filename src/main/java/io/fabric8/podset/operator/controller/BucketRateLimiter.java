@@ -0,0 +1,47 @@
+package io.fabric8.podset.operator.controller;
+
+/**
+ * Token bucket limiting overall rate of requeues, regardless of the item. The bucket
+ * starts full with {@code burst} tokens and is refilled at {@code qps} tokens per second.
+ *
+ * @param <T> type of items in the queue
+ */
+public class BucketRateLimiter<T> implements RateLimiter<T> {
+    private final double qps;
+    private final int burst;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public BucketRateLimiter(double qps, int burst) {
+        if (qps <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("qps and burst must be positive");
+        }
+        this.qps = qps;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    @Override
+    public synchronized long when(T item) {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * qps / 1_000_000_000d);
+        lastRefillNanos = now;
+        // Reserve a token even if it is not available yet, the caller waits for it
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-tokens * 1000 / qps);
+    }
+
+    @Override
+    public void forget(T item) {
+        // Tokens are not tracked per item
+    }
+
+    @Override
+    public int numRequeues(T item) {
+        return 0;
+    }
+}
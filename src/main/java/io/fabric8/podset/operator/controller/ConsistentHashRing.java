@@ -0,0 +1,56 @@
+package io.fabric8.podset.operator.controller;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent hash ring assigning PodSet keys to operator replicas. Every member is placed
+ * on the ring several times, so that keys spread evenly and a member joining or leaving only moves
+ * about 1/N of the keys.
+ */
+public final class ConsistentHashRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final Set<String> members;
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> members) {
+        this(members, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+        for (String member : this.members) {
+            for (int index = 0; index < virtualNodes; index++) {
+                ring.put(Fnv1aHash.hash(member + "#" + index), member);
+            }
+        }
+    }
+
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    /**
+     * Gets member owning a key.
+     *
+     * @param key key, e.g. namespace/name of a PodSet
+     * @return owning member, null if ring has no members
+     */
+    public String getOwner(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        SortedMap<Long, String> tail = ring.tailMap(Fnv1aHash.hash(key));
+        return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashRing" + members;
+    }
+}
@@ -0,0 +1,158 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * How controller runs reconciles and the Kubernetes API calls they fan out to.
+ * <ul>
+ *   <li>Platform threads: a fixed pool of worker threads, concurrency is bounded by pool size.</li>
+ *   <li>Virtual threads: workers and API calls run on virtual threads, which are cheap to block on
+ *   network I/O. Concurrency is bounded by semaphores instead: reconciles per namespace and in flight
+ *   API calls per verb.</li>
+ * </ul>
+ * Virtual threads need Java 21. Project still targets Java 8, so they are created reflectively and
+ * controller falls back to platform threads on older JVMs.
+ */
+public final class ExecutionMode {
+    public static final int DEFAULT_MAX_RECONCILES_PER_NAMESPACE = 50;
+    public static final int DEFAULT_MAX_API_CALLS_PER_VERB = 200;
+    /**
+     * Virtual threads are cheap, so there can be far more workers than with platform threads.
+     */
+    public static final int DEFAULT_VIRTUAL_WORKER_COUNT = 500;
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionMode.class.getSimpleName());
+
+    private final boolean virtualThreads;
+    private final int maxReconcilesPerNamespace;
+    private final int maxApiCallsPerVerb;
+    private final Map<String, Semaphore> namespacePermits = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> verbPermits = new ConcurrentHashMap<>();
+
+    private ExecutionMode(boolean virtualThreads, int maxReconcilesPerNamespace, int maxApiCallsPerVerb) {
+        this.virtualThreads = virtualThreads;
+        this.maxReconcilesPerNamespace = maxReconcilesPerNamespace;
+        this.maxApiCallsPerVerb = maxApiCallsPerVerb;
+    }
+
+    public static ExecutionMode platformThreads() {
+        return new ExecutionMode(false, 0, 0);
+    }
+
+    /**
+     * Virtual threads with bounded concurrency, falling back to platform threads (with the same bounds)
+     * when JVM doesn't support virtual threads.
+     *
+     * @param maxReconcilesPerNamespace maximum number of PodSets reconciled at once in a namespace
+     * @param maxApiCallsPerVerb maximum number of API calls of a verb (e.g. pod creations) in flight at once
+     * @return execution mode
+     */
+    public static ExecutionMode virtualThreads(int maxReconcilesPerNamespace, int maxApiCallsPerVerb) {
+        boolean supported = isVirtualThreadSupported();
+        if (!supported) {
+            logger.warn("Virtual threads need Java 21 or newer, running on {} with platform threads instead",
+                    System.getProperty("java.version"));
+        }
+        return new ExecutionMode(supported, maxReconcilesPerNamespace, maxApiCallsPerVerb);
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException noSuchMethodException) {
+            return false;
+        }
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    ThreadFactory newThreadFactory(String prefix) {
+        if (virtualThreads) {
+            try {
+                // Thread.ofVirtual().name(prefix, 0).factory()
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+                Method factory = builderClass.getMethod("factory");
+                return (ThreadFactory) factory.invoke(builder);
+            } catch (ReflectiveOperationException reflectiveOperationException) {
+                throw new IllegalStateException("Unable to create virtual thread factory", reflectiveOperationException);
+            }
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Runs a reconcile, waiting for a permit of its namespace if reconciles are bounded per namespace.
+     *
+     * @param namespace namespace of reconciled PodSet
+     * @param reconcile reconcile to run
+     * @throws InterruptedException in case the thread gets interrupted while waiting for a permit
+     */
+    void runReconcile(String namespace, Runnable reconcile) throws InterruptedException {
+        if (maxReconcilesPerNamespace <= 0) {
+            reconcile.run();
+            return;
+        }
+        Semaphore permits = namespacePermits.computeIfAbsent(namespace, key -> new Semaphore(maxReconcilesPerNamespace));
+        permits.acquire();
+        try {
+            reconcile.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs an API call, waiting for a permit of its verb if API calls are bounded per verb.
+     *
+     * @param verb kind of call, e.g. {@link PodSetControllerMetrics#VERB_CREATE_POD}
+     * @param call API call
+     * @param <T> type returned by the call
+     * @return whatever call returned
+     */
+    <T> T runApiCall(String verb, Supplier<T> call) {
+        if (maxApiCallsPerVerb <= 0) {
+            return call.get();
+        }
+        Semaphore permits = verbPermits.computeIfAbsent(verb, key -> new Semaphore(maxApiCallsPerVerb));
+        try {
+            permits.acquire();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            // Call is never sent, same as a failed call for callers
+            throw new KubernetesClientException("Interrupted while waiting to " + verb);
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (maxReconcilesPerNamespace <= 0) {
+            return virtualThreads ? "virtual threads" : "platform threads";
+        }
+        return (virtualThreads ? "virtual threads" : "platform threads") + " (max " + maxReconcilesPerNamespace
+                + " reconciles per namespace, max " + maxApiCallsPerVerb + " API calls per verb)";
+    }
+}
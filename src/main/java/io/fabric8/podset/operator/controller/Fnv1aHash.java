@@ -0,0 +1,30 @@
+package io.fabric8.podset.operator.controller;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 64 bit FNV-1a hash followed by a 64 bit finalizer, as FNV alone clusters similar short strings.
+ * <p>
+ * Template hashes stamped on pods are computed with it, any change to it makes every PodSet roll out
+ * its pods again. Also places members and keys on consistent hash ring and orders PodSet keys of resync cycles.
+ */
+final class Fnv1aHash {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Fnv1aHash() { }
+
+    static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte character : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= character;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,88 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Secondary indexes registered on the informers so that lookups don't need to scan the whole cache.
+ */
+public final class Indexers {
+    /**
+     * Indexes Pods by UID of their controller owner.
+     */
+    public static final String OWNER_UID_INDEX = "ownerUid";
+    /**
+     * Indexes Pods by namespace/value of their app label.
+     */
+    public static final String APP_LABEL_INDEX = "appLabel";
+    /**
+     * Indexes PodSets by their own UID, keys match the ones of {@link #OWNER_UID_INDEX}.
+     */
+    public static final String UID_INDEX = "uid";
+    /**
+     * Indexes Pods by UID of their controller owner and hash of template they were created from.
+     */
+    public static final String TEMPLATE_HASH_INDEX = "templateHash";
+
+    private Indexers() { }
+
+    public static List<String> ownerUidIndexFunc(Pod pod) {
+        OwnerReference ownerReference = getControllerOf(pod);
+        if (ownerReference == null || ownerReference.getUid() == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(ownerReference.getUid());
+    }
+
+    public static List<String> appLabelIndexFunc(Pod pod) {
+        Map<String, String> labels = pod.getMetadata().getLabels();
+        String app = labels != null ? labels.get(PodSetController.APP_LABEL) : null;
+        if (app == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(Cache.namespaceKeyFunc(pod.getMetadata().getNamespace(), app));
+    }
+
+    public static List<String> templateHashIndexFunc(Pod pod) {
+        OwnerReference ownerReference = getControllerOf(pod);
+        Map<String, String> labels = pod.getMetadata().getLabels();
+        String templateHash = labels != null ? labels.get(PodTemplateCache.TEMPLATE_HASH_LABEL) : null;
+        if (ownerReference == null || ownerReference.getUid() == null || templateHash == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(getTemplateHashIndexKey(ownerReference.getUid(), templateHash));
+    }
+
+    public static String getTemplateHashIndexKey(String ownerUid, String templateHash) {
+        return ownerUid + "/" + templateHash;
+    }
+
+    public static List<String> uidIndexFunc(HasMetadata resource) {
+        return Collections.singletonList(resource.getMetadata().getUid());
+    }
+
+    /**
+     * Gets the owner reference of the controller managing this Pod.
+     *
+     * @param pod pod
+     * @return controller owner reference, null if Pod isn't controlled by anyone
+     */
+    public static OwnerReference getControllerOf(Pod pod) {
+        List<OwnerReference> ownerReferences = pod.getMetadata().getOwnerReferences();
+        if (ownerReferences == null) {
+            return null;
+        }
+        for (OwnerReference ownerReference : ownerReferences) {
+            if (Boolean.TRUE.equals(ownerReference.getController())) {
+                return ownerReference;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,420 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.DefaultKubernetesResourceList;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ListMeta;
+import io.fabric8.kubernetes.api.model.ListMetaBuilder;
+import io.fabric8.kubernetes.api.model.ListOptions;
+import io.fabric8.kubernetes.api.model.ListOptionsBuilder;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+import io.fabric8.kubernetes.client.dsl.internal.AbstractWatchManager;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.impl.DefaultSharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.impl.ListerWatcher;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local snapshot of an informer cache, so that a restarted operator doesn't have to LIST everything
+ * from API server before it can reconcile. Snapshot is a gzipped stream of JSON lines: list metadata
+ * holding resourceVersion and scope of informer, followed by one cached object per line.
+ * <p>
+ * Scope is what informer lists and watches, i.e. namespace and label selector. A snapshot taken with
+ * another scope is ignored: watch would never send DELETED events for objects outside of its scope,
+ * which would then stay in cache for good.
+ * <p>
+ * Informer created by {@link #createInformer(ListerWatcher, long, Executor)} takes its first LIST
+ * from snapshot and resumes watching from snapshot's resourceVersion. When API server no longer has
+ * that resourceVersion it answers 410 Gone, upon which informer falls back to a full LIST as usual.
+ * <p>
+ * Cache is behind API server until resumed watch has replayed what changed since snapshot was taken,
+ * see {@link #caughtUp()}. When watch doesn't get there in time, informer is made to LIST after all.
+ *
+ * @param <T> type of cached objects
+ */
+public class InformerSnapshot<T extends HasMetadata> {
+    private static final Logger logger = LoggerFactory.getLogger(InformerSnapshot.class.getSimpleName());
+    private static final String SCOPE_PROPERTY = "scope";
+    public static final long DEFAULT_CATCH_UP_TIMEOUT_MILLIS = 10_000;
+
+    private final Path file;
+    private final Class<T> type;
+    private final String scope;
+    private final KubernetesSerialization serialization;
+    private final CompletableFuture<Void> caughtUp = new CompletableFuture<>();
+    private long catchUpTimeoutMillis = DEFAULT_CATCH_UP_TIMEOUT_MILLIS;
+
+    /**
+     * Creates snapshot.
+     *
+     * @param file snapshot file, written via a temporary file next to it
+     * @param type type of cached objects
+     * @param scope scope of informer, see {@link #scope(String, String)}
+     * @param serialization serialization of Kubernetes client
+     */
+    public InformerSnapshot(Path file, Class<T> type, String scope, KubernetesSerialization serialization) {
+        this.file = file;
+        this.type = type;
+        this.scope = scope;
+        this.serialization = serialization;
+    }
+
+    /**
+     * Describes what an informer caches.
+     *
+     * @param namespace namespace watched by informer, null for all namespaces
+     * @param labelSelector label selector of informer, null if there is none
+     * @return scope of informer
+     */
+    public static String scope(String namespace, String labelSelector) {
+        return "namespace=" + (namespace != null ? namespace : "*") + ";labelSelector=" + (labelSelector != null ? labelSelector : "");
+    }
+
+    /**
+     * Sets how long resumed watch may take to catch up with API server before informer falls back to a full LIST.
+     *
+     * @param catchUpTimeoutMillis catch up timeout in milliseconds
+     */
+    public void setCatchUpTimeoutMillis(long catchUpTimeoutMillis) {
+        this.catchUpTimeoutMillis = catchUpTimeoutMillis;
+    }
+
+    /**
+     * Gets a future completed once cache of informer created by {@link #createInformer(ListerWatcher, long, Executor)}
+     * is no longer behind API server: right away when there was no snapshot, otherwise once resumed watch delivered an
+     * event or bookmark at (or past) the resourceVersion API server was at when watch resumed, or once informer listed
+     * from API server.
+     *
+     * @return future completed once informer cache caught up with API server
+     */
+    public CompletableFuture<Void> caughtUp() {
+        return caughtUp;
+    }
+
+    /**
+     * Creates an informer starting from snapshot, if there is a readable one.
+     *
+     * @param listerWatcher lists and watches objects on API server, e.g. a resource operation of Kubernetes client
+     * @param resyncPeriodMillis informer resync period, 0 disables resync
+     * @param executor executor dispatching informer events
+     * @param <L> type of object lists
+     * @return informer, not started yet
+     */
+    public <L extends KubernetesResourceList<T>> SharedIndexInformer<T> createInformer(ListerWatcher<T, L> listerWatcher, long resyncPeriodMillis, Executor executor) {
+        DefaultKubernetesResourceList<T> snapshot = load();
+        if (snapshot == null) {
+            caughtUp.complete(null);
+            return new DefaultSharedIndexInformer<>(type, listerWatcher, resyncPeriodMillis, executor);
+        }
+        logger.info("Starting {} informer from snapshot {} with {} objects at resourceVersion {}",
+                type.getSimpleName(), file, snapshot.getItems().size(), snapshot.getMetadata().getResourceVersion());
+        return new DefaultSharedIndexInformer<>(type, new SnapshotListerWatcher<>(listerWatcher, snapshot, type.getSimpleName(), catchUpTimeoutMillis, caughtUp), resyncPeriodMillis, executor);
+    }
+
+    /**
+     * Writes informer cache to snapshot file. Nothing is written until informer has synced.
+     *
+     * @param informer informer whose cache is written
+     * @return true if snapshot was written
+     * @throws IOException in case snapshot can't be written
+     */
+    public boolean save(SharedIndexInformer<T> informer) throws IOException {
+        // Resource version is read before cache: objects changed in between are cached at a newer version
+        // and get replayed by watch after restart, which is harmless
+        String resourceVersion = informer.lastSyncResourceVersion();
+        if (!informer.hasSynced() || resourceVersion == null || resourceVersion.isEmpty()) {
+            return false;
+        }
+        List<T> items = informer.getStore().list();
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temporaryFile)), StandardCharsets.UTF_8))) {
+            writer.write(serialization.asJson(new ListMetaBuilder()
+                    .withResourceVersion(resourceVersion)
+                    .addToAdditionalProperties(SCOPE_PROPERTY, scope)
+                    .build()));
+            writer.newLine();
+            for (T item : items) {
+                writer.write(serialization.asJson(item));
+                writer.newLine();
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Saved {} {} objects at resourceVersion {} to {}", items.size(), type.getSimpleName(), resourceVersion, file);
+        return true;
+    }
+
+    /**
+     * Reads snapshot file.
+     *
+     * @return list of snapshot objects along with their resourceVersion, null if there is no readable snapshot
+     */
+    DefaultKubernetesResourceList<T> load() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            ListMeta listMeta = header != null ? serialization.unmarshal(header, ListMeta.class) : null;
+            if (listMeta == null || listMeta.getResourceVersion() == null) {
+                logger.warn("Snapshot {} has no resourceVersion, ignoring it", file);
+                return null;
+            }
+            Object snapshotScope = listMeta.getAdditionalProperties().get(SCOPE_PROPERTY);
+            if (!scope.equals(snapshotScope)) {
+                logger.info("Snapshot {} was taken with scope {} instead of {}, {} informer starts with a full LIST",
+                        file, snapshotScope, scope, type.getSimpleName());
+                return null;
+            }
+            List<T> items = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                items.add(serialization.unmarshal(line, type));
+            }
+            DefaultKubernetesResourceList<T> snapshot = new DefaultKubernetesResourceList<>();
+            snapshot.setMetadata(listMeta);
+            snapshot.setItems(items);
+            return snapshot;
+        } catch (NoSuchFileException noSuchFileException) {
+            logger.info("No snapshot {} found, {} informer starts with a full LIST", file, type.getSimpleName());
+            return null;
+        } catch (IOException | RuntimeException exception) {
+            // Half written or corrupted snapshot is no worse than none
+            logger.warn("Unable to read snapshot {}, {} informer starts with a full LIST", file, type.getSimpleName(), exception);
+            return null;
+        }
+    }
+
+    /**
+     * Hands out snapshot as result of the very first LIST, then delegates everything to API server.
+     * Until informer cache caught up, watches are observed to find out when it did.
+     */
+    private static class SnapshotListerWatcher<T extends HasMetadata, L extends KubernetesResourceList<T>> implements ListerWatcher<T, L> {
+        private final ListerWatcher<T, L> delegate;
+        private final String typeName;
+        private final long catchUpTimeoutMillis;
+        private final CompletableFuture<Void> caughtUp;
+        private DefaultKubernetesResourceList<T> snapshot;
+        // Set once informer listed from API server, so that its cache is up to date once it watches again
+        private boolean relisted;
+        private boolean resumed;
+        // resourceVersion API server was at when watch resumed from snapshot, and latest one watch delivered since
+        private String targetVersion;
+        private String watchedVersion;
+        private boolean watchedEvents;
+        private CatchUpWatcher currentWatcher;
+
+        SnapshotListerWatcher(ListerWatcher<T, L> delegate, DefaultKubernetesResourceList<T> snapshot, String typeName,
+                              long catchUpTimeoutMillis, CompletableFuture<Void> caughtUp) {
+            this.delegate = delegate;
+            this.snapshot = snapshot;
+            this.typeName = typeName;
+            this.catchUpTimeoutMillis = catchUpTimeoutMillis;
+            this.caughtUp = caughtUp;
+        }
+
+        @Override
+        public CompletableFuture<AbstractWatchManager<T>> submitWatch(ListOptions listOptions, Watcher<T> watcher) {
+            CatchUpWatcher catchUpWatcher;
+            boolean resuming;
+            synchronized (this) {
+                if (relisted && caughtUp.complete(null)) {
+                    logger.info("{} informer listed from API server instead of catching up from snapshot", typeName);
+                }
+                if (caughtUp.isDone()) {
+                    return delegate.submitWatch(listOptions, watcher);
+                }
+                catchUpWatcher = new CatchUpWatcher(watcher);
+                currentWatcher = catchUpWatcher;
+                resuming = !resumed;
+                if (resuming) {
+                    resumed = true;
+                    watchedVersion = listOptions.getResourceVersion();
+                }
+            }
+            // Bookmarks tell where API server is at, even when nothing in informer's scope changed
+            listOptions.setAllowWatchBookmarks(true);
+            CompletableFuture<AbstractWatchManager<T>> watchFuture = delegate.submitWatch(listOptions, catchUpWatcher);
+            catchUpWatcher.setWatchFuture(watchFuture);
+            if (resuming) {
+                awaitCatchUp();
+            }
+            return watchFuture;
+        }
+
+        private void awaitCatchUp() {
+            // Listing a single object is cheap, and still tells resourceVersion API server is at
+            delegate.submitList(new ListOptionsBuilder().withLimit(1L).build()).whenComplete((list, throwable) -> {
+                if (throwable != null) {
+                    logger.warn("Unable to get current resourceVersion of {} objects", typeName, throwable);
+                    return;
+                }
+                synchronized (this) {
+                    targetVersion = list.getMetadata().getResourceVersion();
+                    checkCaughtUp();
+                }
+            });
+            ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "informer-snapshot-catch-up");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timeoutScheduler.schedule(this::abandonSnapshot, catchUpTimeoutMillis, TimeUnit.MILLISECONDS);
+            caughtUp.whenComplete((ignored, throwable) -> timeoutScheduler.shutdownNow());
+        }
+
+        private synchronized void watched(String resourceVersion) {
+            watchedVersion = resourceVersion;
+            watchedEvents = true;
+            checkCaughtUp();
+        }
+
+        private void checkCaughtUp() {
+            if (targetVersion != null && watchedVersion != null && isAtLeast(watchedVersion, targetVersion) && caughtUp.complete(null)) {
+                logger.info("{} informer caught up with API server at resourceVersion {}", typeName, watchedVersion);
+            }
+        }
+
+        private boolean isAtLeast(String resourceVersion, String otherResourceVersion) {
+            if (resourceVersion.equals(otherResourceVersion)) {
+                return true;
+            }
+            // resourceVersions are meant to be opaque, they're etcd revisions in practice though
+            try {
+                return Long.parseLong(resourceVersion) >= Long.parseLong(otherResourceVersion);
+            } catch (NumberFormatException numberFormatException) {
+                return watchedEvents;
+            }
+        }
+
+        private void abandonSnapshot() {
+            CatchUpWatcher watcherToAbandon;
+            synchronized (this) {
+                if (caughtUp.isDone()) {
+                    return;
+                }
+                watcherToAbandon = currentWatcher;
+            }
+            logger.warn("{} informer didn't catch up with API server within {} ms of resuming watch from snapshot, listing instead",
+                    typeName, catchUpTimeoutMillis);
+            watcherToAbandon.abandon();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public synchronized CompletableFuture<L> submitList(ListOptions listOptions) {
+            if (snapshot != null && listOptions.getContinue() == null) {
+                // Any later LIST, e.g. after watch got 410 Gone, goes to API server
+                DefaultKubernetesResourceList<T> list = snapshot;
+                snapshot = null;
+                return CompletableFuture.completedFuture((L) list);
+            }
+            relisted = true;
+            return delegate.submitList(listOptions);
+        }
+
+        @Override
+        public Long getLimit() {
+            return delegate.getLimit();
+        }
+
+        @Override
+        public int getWatchReconnectInterval() {
+            return delegate.getWatchReconnectInterval();
+        }
+
+        @Override
+        public String getApiEndpointPath() {
+            return delegate.getApiEndpointPath();
+        }
+
+        /**
+         * Passes watch events on to informer, keeping track of resourceVersion they're at. An abandoned watch
+         * tells informer it's gone (410), which makes informer LIST again.
+         */
+        private class CatchUpWatcher implements Watcher<T> {
+            private final Watcher<T> watcher;
+            private CompletableFuture<AbstractWatchManager<T>> watchFuture;
+            private volatile boolean abandoned;
+
+            CatchUpWatcher(Watcher<T> watcher) {
+                this.watcher = watcher;
+            }
+
+            @Override
+            public void eventReceived(Action action, T resource) {
+                if (abandoned) {
+                    return;
+                }
+                watcher.eventReceived(action, resource);
+                if (resource != null && resource.getMetadata() != null && resource.getMetadata().getResourceVersion() != null) {
+                    watched(resource.getMetadata().getResourceVersion());
+                }
+            }
+
+            @Override
+            public boolean reconnecting() {
+                return watcher.reconnecting();
+            }
+
+            @Override
+            public void onClose() {
+                if (!abandoned) {
+                    watcher.onClose();
+                }
+            }
+
+            @Override
+            public void onClose(WatcherException cause) {
+                if (!abandoned) {
+                    watcher.onClose(cause);
+                }
+            }
+
+            synchronized void setWatchFuture(CompletableFuture<AbstractWatchManager<T>> watchFuture) {
+                this.watchFuture = watchFuture;
+                if (abandoned) {
+                    watchFuture.thenAccept(AbstractWatchManager::close);
+                }
+            }
+
+            void abandon() {
+                synchronized (this) {
+                    abandoned = true;
+                    if (watchFuture != null) {
+                        watchFuture.thenAccept(AbstractWatchManager::close);
+                    }
+                }
+                watcher.onClose(new WatcherException("Watch resumed from snapshot didn't catch up",
+                        new KubernetesClientException(new StatusBuilder()
+                                .withCode(HttpURLConnection.HTTP_GONE)
+                                .withMessage("Watch resumed from snapshot didn't catch up")
+                                .build())));
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.fabric8.podset.operator.controller;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per item exponential backoff: baseDelay * 2^(number of failures), capped at maxDelay.
+ *
+ * @param <T> type of items in the queue
+ */
+public class ItemExponentialFailureRateLimiter<T> implements RateLimiter<T> {
+    private final Map<T, Integer> failures = new ConcurrentHashMap<>();
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public ItemExponentialFailureRateLimiter(long baseDelayMillis, long maxDelayMillis) {
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public long when(T item) {
+        int exponent = failures.merge(item, 1, Integer::sum) - 1;
+        if (exponent >= 62) {
+            return maxDelayMillis;
+        }
+        double backoff = baseDelayMillis * Math.pow(2, exponent);
+        if (backoff > maxDelayMillis) {
+            return maxDelayMillis;
+        }
+        return (long) backoff;
+    }
+
+    @Override
+    public void forget(T item) {
+        failures.remove(item);
+    }
+
+    @Override
+    public int numRequeues(T item) {
+        return failures.getOrDefault(item, 0);
+    }
+}
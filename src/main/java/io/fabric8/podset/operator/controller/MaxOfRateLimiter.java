@@ -0,0 +1,42 @@
+package io.fabric8.podset.operator.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Combines several rate limiters, returning the worst case delay of all of them.
+ *
+ * @param <T> type of items in the queue
+ */
+public final class MaxOfRateLimiter<T> implements RateLimiter<T> {
+    private final List<RateLimiter<T>> rateLimiters;
+
+    public MaxOfRateLimiter(List<RateLimiter<T>> rateLimiters) {
+        this.rateLimiters = new ArrayList<>(rateLimiters);
+    }
+
+    @Override
+    public long when(T item) {
+        long delay = 0;
+        for (RateLimiter<T> rateLimiter : rateLimiters) {
+            delay = Math.max(delay, rateLimiter.when(item));
+        }
+        return delay;
+    }
+
+    @Override
+    public void forget(T item) {
+        for (RateLimiter<T> rateLimiter : rateLimiters) {
+            rateLimiter.forget(item);
+        }
+    }
+
+    @Override
+    public int numRequeues(T item) {
+        int requeues = 0;
+        for (RateLimiter<T> rateLimiter : rateLimiters) {
+            requeues = Math.max(requeues, rateLimiter.numRequeues(item));
+        }
+        return requeues;
+    }
+}
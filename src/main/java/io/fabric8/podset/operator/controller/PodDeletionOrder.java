@@ -0,0 +1,162 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodCondition;
+import io.fabric8.kubernetes.client.readiness.Readiness;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks pods to delete on scale down, in the same order as ReplicaSet controller does, so that
+ * pods which do the least useful work go first:
+ * <ol>
+ *   <li>not scheduled before scheduled</li>
+ *   <li>Pending before Unknown before Running</li>
+ *   <li>not ready before ready</li>
+ *   <li>lower {@value TrimmingPodItemStore#POD_DELETION_COST_ANNOTATION} annotation before higher</li>
+ *   <li>pods sharing a node with more pods of the PodSet before others</li>
+ *   <li>ready for a shorter time before ready for longer</li>
+ *   <li>more container restarts before fewer</li>
+ *   <li>newer before older</li>
+ * </ol>
+ */
+public final class PodDeletionOrder {
+    private static final Comparator<RankedPod> DELETION_ORDER = Comparator
+            .comparing((RankedPod rankedPod) -> rankedPod.scheduled)
+            .thenComparingInt(rankedPod -> rankedPod.phaseOrdinal)
+            .thenComparing(rankedPod -> rankedPod.ready)
+            .thenComparingInt(rankedPod -> rankedPod.deletionCost)
+            .thenComparing(Comparator.comparingInt((RankedPod rankedPod) -> rankedPod.podsOnSameNode).reversed())
+            .thenComparing(Comparator.comparingLong((RankedPod rankedPod) -> rankedPod.readySinceMillis).reversed())
+            .thenComparing(Comparator.comparingInt((RankedPod rankedPod) -> rankedPod.restarts).reversed())
+            .thenComparing(Comparator.comparingLong((RankedPod rankedPod) -> rankedPod.createdMillis).reversed());
+
+    private PodDeletionOrder() { }
+
+    /**
+     * Gets pods which should be deleted first.
+     *
+     * @param pods active pods of a PodSet
+     * @param count number of pods to delete
+     * @return count pods, in order in which they should be deleted
+     */
+    public static List<Pod> getPodsToDelete(List<Pod> pods, int count) {
+        Map<String, Integer> podsPerNode = new HashMap<>();
+        for (Pod pod : pods) {
+            String nodeName = getNodeName(pod);
+            if (nodeName != null) {
+                podsPerNode.merge(nodeName, 1, Integer::sum);
+            }
+        }
+
+        // Ranking keys are computed once per pod rather than on every comparison
+        List<RankedPod> rankedPods = new ArrayList<>(pods.size());
+        for (Pod pod : pods) {
+            rankedPods.add(new RankedPod(pod, podsPerNode));
+        }
+        rankedPods.sort(DELETION_ORDER);
+
+        List<Pod> podsToDelete = new ArrayList<>(Math.min(count, rankedPods.size()));
+        for (RankedPod rankedPod : rankedPods.subList(0, Math.min(count, rankedPods.size()))) {
+            podsToDelete.add(rankedPod.pod);
+        }
+        return podsToDelete;
+    }
+
+    static int getDeletionCost(Pod pod) {
+        Map<String, String> annotations = pod.getMetadata().getAnnotations();
+        String deletionCost = annotations != null ? annotations.get(TrimmingPodItemStore.POD_DELETION_COST_ANNOTATION) : null;
+        if (deletionCost == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(deletionCost.trim());
+        } catch (NumberFormatException numberFormatException) {
+            // Invalid values are rejected by API server, treat them as default cost
+            return 0;
+        }
+    }
+
+    private static String getNodeName(Pod pod) {
+        String nodeName = pod.getSpec() != null ? pod.getSpec().getNodeName() : null;
+        return nodeName == null || nodeName.isEmpty() ? null : nodeName;
+    }
+
+    private static int getPhaseOrdinal(Pod pod) {
+        String phase = pod.getStatus() != null ? pod.getStatus().getPhase() : null;
+        if ("Running".equals(phase)) {
+            return 2;
+        } else if ("Unknown".equals(phase)) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private static long getReadySinceMillis(Pod pod) {
+        if (pod.getStatus() == null || pod.getStatus().getConditions() == null) {
+            return 0;
+        }
+        for (PodCondition condition : pod.getStatus().getConditions()) {
+            if ("Ready".equals(condition.getType())) {
+                return parseTimestamp(condition.getLastTransitionTime());
+            }
+        }
+        return 0;
+    }
+
+    private static int getMaxRestarts(Pod pod) {
+        int restarts = 0;
+        if (pod.getStatus() != null && pod.getStatus().getContainerStatuses() != null) {
+            for (ContainerStatus containerStatus : pod.getStatus().getContainerStatuses()) {
+                if (containerStatus.getRestartCount() != null) {
+                    restarts = Math.max(restarts, containerStatus.getRestartCount());
+                }
+            }
+        }
+        return restarts;
+    }
+
+    private static long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException dateTimeParseException) {
+            return 0;
+        }
+    }
+
+    private static class RankedPod {
+        private final Pod pod;
+        private final boolean scheduled;
+        private final int phaseOrdinal;
+        private final boolean ready;
+        private final int deletionCost;
+        private final int podsOnSameNode;
+        private final long readySinceMillis;
+        private final int restarts;
+        private final long createdMillis;
+
+        RankedPod(Pod pod, Map<String, Integer> podsPerNode) {
+            String nodeName = getNodeName(pod);
+            this.pod = pod;
+            this.scheduled = nodeName != null;
+            this.phaseOrdinal = getPhaseOrdinal(pod);
+            this.ready = Readiness.isPodReady(pod);
+            this.deletionCost = getDeletionCost(pod);
+            this.podsOnSameNode = nodeName != null ? podsPerNode.get(nodeName) : 0;
+            // Only ready pods are compared by how long they have been ready
+            this.readySinceMillis = ready ? getReadySinceMillis(pod) : 0;
+            this.restarts = getMaxRestarts(pod);
+            this.createdMillis = parseTimestamp(pod.getMetadata().getCreationTimestamp());
+        }
+    }
+}
@@ -3,85 +3,420 @@ package io.fabric8.podset.operator.controller;
 import io.fabric8.kubernetes.api.model.KubernetesResourceList;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
 import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
 import io.fabric8.kubernetes.client.informers.cache.Cache;
-import io.fabric8.kubernetes.client.informers.cache.Lister;
+import io.fabric8.kubernetes.client.readiness.Readiness;
+import io.fabric8.podset.operator.metrics.Gauge;
+import io.fabric8.podset.operator.metrics.MetricsRegistry;
 import io.fabric8.podset.operator.model.v1alpha1.PodSet;
 import io.fabric8.podset.operator.model.v1alpha1.PodSetStatus;
+import io.fabric8.podset.operator.tracing.Span;
+import io.fabric8.podset.operator.tracing.Trace;
+import io.fabric8.podset.operator.tracing.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class PodSetController {
-    private final BlockingQueue<String> workqueue;
+    private final RateLimitingQueue<String> workqueue;
     private final SharedIndexInformer<PodSet> podSetInformer;
     private final SharedIndexInformer<Pod> podInformer;
-    private final Lister<PodSet> podSetLister;
-    private final Lister<Pod> podLister;
     private final KubernetesClient kubernetesClient;
     private final MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient;
+    private final int workerCount;
+    private final ExecutorService apiCallExecutor;
+    private final PodSetExpectations expectations;
+    private final PodSetStatusUpdater statusUpdater;
+    private final PodTemplateCache templateCache;
+    private final UpdatePredicate<PodSet> podSetUpdatePredicate = Predicates.podSetGenerationChanged();
+    private final UpdatePredicate<Pod> podUpdatePredicate = Predicates.podStateChanged();
+    private final PodSetControllerMetrics metrics;
+    private final ExecutionMode executionMode;
+    private volatile Predicate<String> shardFilter = key -> true;
+    private volatile Set<String> namespaces;
+    private volatile Tracer tracer = Tracer.disabled();
+    private volatile boolean finalizerEnabled;
+    private long resyncPeriodMillis = DEFAULT_RESYNC_PERIOD_MILLIS;
+    private volatile ResyncScheduler resyncScheduler;
+    private ExecutorService workers;
+    private volatile long timeToReadyMillis = -1;
+    private CompletableFuture<Void> cachesCaughtUp = CompletableFuture.completedFuture(null);
     public static final Logger logger = LoggerFactory.getLogger(PodSetController.class.getSimpleName());
     public static final String APP_LABEL = "app";
+    /**
+     * Stamped on every pod created by controller, so that pod informer can be restricted to these pods only.
+     */
+    public static final String MANAGED_BY_LABEL = "app.kubernetes.io/managed-by";
+    public static final String MANAGED_BY_VALUE = "podset-operator";
+    /**
+     * Put on PodSets in finalizer mode, so that controller deletes their pods with a single call once PodSet is deleted.
+     */
+    public static final String POD_CLEANUP_FINALIZER = "podset.fabric8.io/pod-cleanup";
+    public static final int DEFAULT_WORKER_COUNT = 2;
+    public static final long DEFAULT_SYNC_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    public static final long DEFAULT_DRAIN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final long DEFAULT_RESYNC_PERIOD_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    /**
+     * Maximum number of pod deletions in flight at once for a PodSet.
+     */
+    public static final int DELETE_BATCH_SIZE = 50;
 
     public PodSetController(KubernetesClient kubernetesClient, MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient, SharedIndexInformer<Pod> podInformer, SharedIndexInformer<PodSet> podSetInformer, String namespace) {
+        this(kubernetesClient, podSetClient, podInformer, podSetInformer, namespace, DEFAULT_WORKER_COUNT, RateLimitingQueue.defaultControllerRateLimiter());
+    }
+
+    public PodSetController(KubernetesClient kubernetesClient, MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient, SharedIndexInformer<Pod> podInformer, SharedIndexInformer<PodSet> podSetInformer, String namespace, int workerCount, RateLimiter<String> rateLimiter) {
+        this(kubernetesClient, podSetClient, podInformer, podSetInformer, namespace, workerCount, rateLimiter, new PodSetControllerMetrics(new MetricsRegistry()));
+    }
+
+    public PodSetController(KubernetesClient kubernetesClient, MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient, SharedIndexInformer<Pod> podInformer, SharedIndexInformer<PodSet> podSetInformer, String namespace, int workerCount, RateLimiter<String> rateLimiter, PodSetControllerMetrics metrics) {
+        this(kubernetesClient, podSetClient, podInformer, podSetInformer, namespace, workerCount, rateLimiter, metrics, ExecutionMode.platformThreads());
+    }
+
+    public PodSetController(KubernetesClient kubernetesClient, MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient, SharedIndexInformer<Pod> podInformer, SharedIndexInformer<PodSet> podSetInformer, String namespace, int workerCount, RateLimiter<String> rateLimiter, PodSetControllerMetrics metrics, ExecutionMode executionMode) {
         this.kubernetesClient = kubernetesClient;
         this.podSetClient = podSetClient;
-        this.podSetLister = new Lister<>(podSetInformer.getIndexer(), namespace);
+        this.metrics = metrics;
+        this.executionMode = executionMode;
+        this.namespaces = namespace != null ? Collections.singleton(namespace) : Collections.emptySet();
         this.podSetInformer = podSetInformer;
-        this.podLister = new Lister<>(podInformer.getIndexer(), namespace);
         this.podInformer = podInformer;
-        this.workqueue = new ArrayBlockingQueue<>(1024);
+        addIndexersToSharedIndexInformers();
+        this.workerCount = workerCount;
+        // Namespaces take turns, so that a namespace with lots of PodSets doesn't starve the others
+        this.workqueue = new RateLimitingQueue<>(rateLimiter, metrics::observeQueueDuration, PodSetController::getNamespaceOfKey);
+        this.apiCallExecutor = Executors.newCachedThreadPool(executionMode.newThreadFactory("podset-api-"));
+        this.expectations = new PodSetExpectations();
+        this.templateCache = new PodTemplateCache(kubernetesClient.getKubernetesSerialization());
+        this.statusUpdater = new PodSetStatusUpdater(podSetClient, PodSetStatusUpdater.DEFAULT_COALESCE_WINDOW_MILLIS, (key, backoffMillis) -> {
+            tracer.eventReceived(key, "status retry");
+            workqueue.addRateLimited(key, backoffMillis);
+        }, metrics);
         addEventHandlersToSharedIndexInformers();
+        registerGauges();
     }
 
-    public void run() {
+    /**
+     * Starts controller and blocks until it's stopped via {@link #stop(long)} or the calling thread is interrupted.
+     *
+     * @throws InterruptedException in case the thread gets interrupted
+     * @throws ExecutionException in case informers fail to start
+     * @throws TimeoutException in case informers don't sync within {@link #DEFAULT_SYNC_TIMEOUT_MILLIS}
+     */
+    public void run() throws InterruptedException, ExecutionException, TimeoutException {
+        start(DEFAULT_SYNC_TIMEOUT_MILLIS);
+        try {
+            awaitTermination();
+        } finally {
+            stop(DEFAULT_DRAIN_TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Waits for informer caches to sync, and to catch up with API server (see {@link #setCachesCaughtUp(CompletableFuture)}),
+     * and starts workers.
+     *
+     * @param syncTimeoutMillis how long to wait for informer caches to sync, and then to catch up
+     * @throws InterruptedException in case the thread gets interrupted
+     * @throws ExecutionException in case informers fail to start
+     * @throws TimeoutException in case informers don't sync in time
+     */
+    public synchronized void start(long syncTimeoutMillis) throws InterruptedException, ExecutionException, TimeoutException {
+        if (workers != null) {
+            throw new IllegalStateException("PodSet controller has already been started");
+        }
         logger.info("Starting PodSet controller");
-        while (!Thread.currentThread().isInterrupted()) {
-            if (podInformer.hasSynced() && podSetInformer.hasSynced()) {
-                break;
-            }
+        long startedNanos = System.nanoTime();
+        // Informers which have already been started just hand out their start future
+        CompletableFuture.allOf(podInformer.start().toCompletableFuture(), podSetInformer.start().toCompletableFuture())
+                .get(syncTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (!cachesCaughtUp.isDone()) {
+            // Reconciling against caches which are behind API server would create or delete pods for nothing
+            logger.info("Waiting for informer caches to catch up with API server");
+            cachesCaughtUp.get(syncTimeoutMillis, TimeUnit.MILLISECONDS);
         }
 
-        while (true) {
-            try {
-                logger.info("trying to fetch item from workqueue...");
-                if (workqueue.isEmpty()) {
-                    logger.info("Work Queue is empty");
-                }
-                String key = workqueue.take();
-                Objects.requireNonNull(key, "key can't be null");
-                logger.info("Got {}", key);
-                if ((!key.contains("/"))) {
-                    logger.warn("invalid resource key: {}", key);
-                }
+        logger.info("Starting {} workers on {}", workerCount, executionMode);
+        workers = Executors.newFixedThreadPool(workerCount, executionMode.newThreadFactory("podset-worker-"));
+        for (int index = 0; index < workerCount; index++) {
+            workers.execute(this::runWorker);
+        }
+        if (resyncPeriodMillis > 0) {
+            resyncScheduler = new ResyncScheduler(resyncPeriodMillis, podSetInformer.getIndexer()::listKeys, this::enqueueResync);
+            resyncScheduler.start();
+        }
+        timeToReadyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        logger.info("PodSet controller ready in {} ms", timeToReadyMillis);
+    }
 
-                // Get the PodSet resource's name from key which is in format namespace/name
-                String name = key.split("/")[1];
-                PodSet podSet = podSetLister.get(key.split("/")[1]);
-                if (podSet == null) {
-                    logger.error("PodSet {} in workqueue no longer exists", name);
-                    return;
+    /**
+     * Stops controller. Items waiting in workqueue are dropped, reconciles which are in flight
+     * are given drainTimeoutMillis to finish before they get interrupted.
+     *
+     * @param drainTimeoutMillis how long to wait for in flight reconciles
+     * @throws InterruptedException in case the thread gets interrupted while waiting
+     */
+    public void stop(long drainTimeoutMillis) throws InterruptedException {
+        ExecutorService workersToStop;
+        synchronized (this) {
+            workersToStop = workers;
+            if (resyncScheduler != null) {
+                resyncScheduler.stop();
+            }
+        }
+        logger.info("Stopping PodSet controller");
+        workqueue.shutDown();
+        try {
+            if (workersToStop != null) {
+                workersToStop.shutdown();
+                if (!workersToStop.awaitTermination(drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    logger.warn("Reconciles didn't finish within {} ms, interrupting them", drainTimeoutMillis);
+                    workersToStop.shutdownNow();
                 }
-                reconcile(podSet);
+            }
+        } finally {
+            statusUpdater.shutDown();
+            apiCallExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Blocks until all workers have exited after {@link #stop(long)}.
+     *
+     * @throws InterruptedException in case the thread gets interrupted while waiting
+     */
+    public void awaitTermination() throws InterruptedException {
+        ExecutorService workersToAwait;
+        synchronized (this) {
+            workersToAwait = workers;
+        }
+        if (workersToAwait == null) {
+            throw new IllegalStateException("PodSet controller has not been started");
+        }
+        // Workers only exit once workqueue is shut down
+        while (!workersToAwait.awaitTermination(1, TimeUnit.MINUTES)) {
+            logger.debug("PodSet controller still running");
+        }
+    }
+
+    /**
+     * Checks whether informer caches have been synced.
+     *
+     * @return true once both Pod and PodSet informers have synced
+     */
+    public boolean hasSynced() {
+        return podInformer.hasSynced() && podSetInformer.hasSynced();
+    }
 
-            } catch (InterruptedException interruptedException) {
-                Thread.currentThread().interrupt();
-                logger.error("controller interrupted..");
+    /**
+     * Gets time it took from {@link #start(long)} until controller was ready to reconcile, including informer sync.
+     *
+     * @return time to ready in milliseconds, -1 if controller isn't started yet
+     */
+    public long getTimeToReadyMillis() {
+        return timeToReadyMillis;
+    }
+
+    /**
+     * Restricts controller to a slice of PodSets, when PodSets are sharded across replicas. Keys of
+     * other PodSets aren't enqueued, nor reconciled if they were enqueued before slice changed.
+     *
+     * @param shardFilter tells whether a PodSet key (namespace/name) belongs to this replica
+     */
+    public void setShardFilter(Predicate<String> shardFilter) {
+        this.shardFilter = shardFilter;
+    }
+
+    /**
+     * Restricts controller to PodSets of some namespaces, e.g. when informers watch all namespaces but
+     * operator should only manage a few of them.
+     *
+     * @param namespaces namespaces whose PodSets are reconciled, empty for all namespaces
+     */
+    public void setNamespaces(Collection<String> namespaces) {
+        this.namespaces = Collections.unmodifiableSet(new HashSet<>(namespaces));
+    }
+
+    /**
+     * Enables finalizer mode: controller puts {@value #POD_CLEANUP_FINALIZER} finalizer on PodSets and, once a PodSet
+     * is deleted, deletes all its pods with a single label selected deleteCollection call before dropping finalizer.
+     * Otherwise pods are left to garbage collector, which deletes them one at a time. PodSets which still carry
+     * the finalizer are cleaned up even when finalizer mode is disabled.
+     *
+     * @param finalizerEnabled whether finalizer mode is enabled
+     */
+    public void setFinalizerEnabled(boolean finalizerEnabled) {
+        this.finalizerEnabled = finalizerEnabled;
+    }
+
+    /**
+     * Sets a future workers wait for on top of informer sync, e.g. informers started from a snapshot catching up
+     * with API server. See {@link InformerSnapshot#caughtUp()}.
+     *
+     * @param cachesCaughtUp future completed once informer caches are no longer behind API server
+     */
+    public void setCachesCaughtUp(CompletableFuture<Void> cachesCaughtUp) {
+        this.cachesCaughtUp = cachesCaughtUp;
+    }
+
+    /**
+     * Sets tracer recording reconciles from triggering informer event until status write, disabled by default.
+     *
+     * @param tracer tracer
+     */
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Sets how often every PodSet is reconciled even if nothing has changed, catching up with changes
+     * missed by informers. Resyncs are spread evenly across the period and only picked up by workers
+     * when no PodSet with an actual change is waiting. Must be called before {@link #start(long)}.
+     *
+     * @param resyncPeriodMillis resync period in milliseconds, 0 disables resync
+     */
+    public synchronized void setResyncPeriodMillis(long resyncPeriodMillis) {
+        if (workers != null) {
+            throw new IllegalStateException("PodSet controller has already been started");
+        }
+        this.resyncPeriodMillis = resyncPeriodMillis;
+    }
+
+    /**
+     * Enqueues every cached PodSet belonging to this replica, e.g. after shard slice has changed.
+     */
+    public void enqueueAllPodSets() {
+        for (PodSet podSet : podSetInformer.getStore().list()) {
+            enqueuePodSet(podSet, "shard change");
+        }
+    }
+
+    /**
+     * Gets number of PodSet keys waiting in workqueue.
+     *
+     * @return workqueue depth
+     */
+    public int getQueueDepth() {
+        return workqueue.len();
+    }
+
+    private void runWorker() {
+        while (processNextWorkItem()) {
+            // Keep on processing items until queue is shut down
+        }
+    }
+
+    private boolean processNextWorkItem() {
+        String key;
+        try {
+            key = workqueue.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (key == null) {
+            return false;
+        }
+
+        long startNanos = System.nanoTime();
+        Trace trace = tracer.startTrace(key);
+        try {
+            logger.info("Got {}", key);
+            syncHandler(key);
+            workqueue.forget(key);
+        } catch (InterruptedException interruptedException) {
+            // Controller is being stopped while waiting to reconcile
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException exception) {
+            // Worker stays alive, key is retried with backoff
+            logger.error("Error syncing PodSet {}, requeuing", key, exception);
+            trace.setError(exception);
+            metrics.reconcileError();
+            metrics.requeue();
+            tracer.eventReceived(key, "retry");
+            workqueue.addRateLimited(key);
+        } finally {
+            metrics.observeReconcile(startNanos);
+            workqueue.done(key);
+            tracer.detach();
+            trace.release();
+        }
+        return true;
+    }
+
+    private void syncHandler(String key) throws InterruptedException {
+        if ((!key.contains("/"))) {
+            logger.warn("invalid resource key: {}", key);
+            return;
+        }
+
+        if (!isManaged(key)) {
+            logger.info("PodSet {} isn't managed by this replica (anymore), skipping it", key);
+            return;
+        }
+
+        // Key is in format namespace/name, same as keys of informer cache
+        PodSet podSet = podSetInformer.getIndexer().getByKey(key);
+        if (podSet == null) {
+            logger.error("PodSet {} in workqueue no longer exists", key);
+            return;
+        }
+        if (podSet.getMetadata().getDeletionTimestamp() != null) {
+            // Pods of a PodSet being deleted aren't replaced, they go along with it
+            if (hasPodCleanupFinalizer(podSet)) {
+                cleanUpPods(podSet);
             }
+            return;
         }
+        if (finalizerEnabled && !hasPodCleanupFinalizer(podSet)) {
+            // Reconciled anyway, finalizer update enqueues PodSet again only if generation changed
+            addPodCleanupFinalizer(podSet);
+        }
+
+        // Reconciles of a namespace might have to wait for a permit
+        Span permitSpan = tracer.currentTrace().startSpan("reconcile-permit");
+        executionMode.runReconcile(podSet.getMetadata().getNamespace(), () -> {
+            permitSpan.end();
+            Span reconcileSpan = tracer.currentTrace().startSpan("reconcile");
+            try {
+                reconcile(podSet);
+            } finally {
+                reconcileSpan.end();
+            }
+        });
+    }
+
+    /**
+     * Gets predicates filtering informer update events, along with number of events they filtered.
+     *
+     * @return list of update predicates
+     */
+    public List<UpdatePredicate<?>> getUpdatePredicates() {
+        return Arrays.asList(podSetUpdatePredicate, podUpdatePredicate);
     }
 
     /**
@@ -90,150 +425,480 @@ public class PodSetController {
      * @param podSet specified podset
      */
     protected void reconcile(PodSet podSet) {
-        List<String> pods = podCountByLabel(APP_LABEL, podSet.getMetadata().getName());
+        String key = Cache.metaNamespaceKeyFunc(podSet);
+        Trace trace = tracer.currentTrace();
+        Span lookupSpan = trace.startSpan("pod-lookup");
+        List<Pod> pods = getActivePods(podSet);
         logger.info("reconcile() : Found {} number of Pods owned by PodSet {}",  pods.size(), podSet.getMetadata().getName());
-        if (pods.isEmpty()) {
-            createPods(podSet.getSpec().getReplicas(), podSet);
+        List<Pod> outdatedPods = getOutdatedPods(podSet, pods);
+        // Pod informer hasn't observed pods created/deleted by previous reconcile yet, counting
+        // pods from its cache would lead to duplicate creates/deletes
+        boolean satisfiedExpectations = expectations.satisfiedExpectations(key);
+        lookupSpan.setAttribute("pods", pods.size()).setAttribute("outdatedPods", outdatedPods.size())
+                .setAttribute("satisfiedExpectations", satisfiedExpectations).end();
+        if (satisfiedExpectations) {
+            if (!outdatedPods.isEmpty()) {
+                rollOut(podSet, pods, outdatedPods);
+            } else {
+                // Compare it with desired state i.e spec.replicas
+                int diff = pods.size() - podSet.getSpec().getReplicas();
+                if (diff < 0) {
+                    // if less then spin up pods
+                    expectations.expectCreations(key, -diff);
+                    createPods(-diff, podSet);
+                } else if (diff > 0) {
+                    // If more pods then delete the ones doing least useful work
+                    List<Pod> podsToDelete = PodDeletionOrder.getPodsToDelete(pods, diff);
+                    expectations.expectDeletions(key, getPodNames(podsToDelete));
+                    deletePods(podsToDelete, podSet);
+                }
+            }
+        }
+
+        // Update PodSet status
+        statusUpdater.updateStatus(podSet, calculateStatus(podSet, pods, outdatedPods), trace);
+    }
+
+    /**
+     * Runs a wave of an update, replacing outdated pods with pods created from current template. Creations
+     * and deletions of a wave are issued in parallel, next wave is planned once pods of this one are observed
+     * and their readiness changes.
+     *
+     * @param podSet specified podset
+     * @param pods active pods of podset
+     * @param outdatedPods active pods created from an outdated template
+     */
+    private void rollOut(PodSet podSet, List<Pod> pods, List<Pod> outdatedPods) {
+        String key = Cache.metaNamespaceKeyFunc(podSet);
+        int readyPods = 0;
+        int unreadyOutdatedPods = 0;
+        for (Pod pod : pods) {
+            if (Readiness.isPodReady(pod)) {
+                readyPods++;
+            }
+        }
+        for (Pod pod : outdatedPods) {
+            if (!Readiness.isPodReady(pod)) {
+                unreadyOutdatedPods++;
+            }
+        }
+        RollingUpdate wave = RollingUpdate.planWave(podSet.getSpec().getStrategy(), podSet.getSpec().getReplicas(),
+                pods.size(), readyPods, outdatedPods.size(), unreadyOutdatedPods);
+        logger.info("Rolling out PodSet {}: {} outdated pods, creating {} and deleting {} pods",
+                podSet.getMetadata().getName(), outdatedPods.size(), wave.getCreations(), wave.getDeletions());
+        if (wave.getCreations() == 0 && wave.getDeletions() == 0) {
+            // Waiting for pods of previous wave to become ready
             return;
         }
-        int existingPods = pods.size();
+        List<Pod> podsToDelete = PodDeletionOrder.getPodsToDelete(outdatedPods, wave.getDeletions());
+        expectations.expect(key, wave.getCreations(), getPodNames(podsToDelete));
+        CompletableFuture<Void> deletions = podsToDelete.isEmpty() ? CompletableFuture.completedFuture(null) :
+                CompletableFuture.runAsync(tracer.wrap(() -> deletePods(podsToDelete, podSet)), apiCallExecutor);
+        RuntimeException failure = null;
+        if (wave.getCreations() > 0) {
+            try {
+                createPods(wave.getCreations(), podSet);
+            } catch (RuntimeException exception) {
+                failure = exception;
+            }
+        }
+        try {
+            deletions.join();
+        } catch (CompletionException completionException) {
+            if (failure == null) {
+                failure = completionException.getCause() instanceof RuntimeException ?
+                        (RuntimeException) completionException.getCause() : completionException;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
 
-        // Compare it with desired state i.e spec.replicas
-        // if less then spin up pods
-        if (existingPods < podSet.getSpec().getReplicas()) {
-            createPods(podSet.getSpec().getReplicas() - existingPods, podSet);
+    /**
+     * Deletes all pods of a deleted PodSet with a single deleteCollection call, then drops finalizer. Pods are
+     * selected by labels put on every pod created by controller.
+     *
+     * @param podSet specified podset, being deleted
+     */
+    private void cleanUpPods(PodSet podSet) {
+        String namespace = podSet.getMetadata().getNamespace();
+        // Pods are already gone when finalizer couldn't be dropped on a previous attempt
+        List<Pod> activePods = getActivePods(podSet);
+        if (!activePods.isEmpty()) {
+            Span span = tracer.currentTrace().startSpan("delete-pod-collection");
+            try {
+                metrics.timeApiCall(PodSetControllerMetrics.VERB_DELETE_POD_COLLECTION, () -> kubernetesClient.pods().inNamespace(namespace)
+                        .withLabel(APP_LABEL, podSet.getMetadata().getName())
+                        .withLabel(MANAGED_BY_LABEL, MANAGED_BY_VALUE)
+                        .delete());
+            } finally {
+                span.end();
+            }
+            // Pods created by older versions lack managed-by label, collection delete doesn't match them
+            for (Pod pod : activePods) {
+                if (!isManagedByLabelled(pod)) {
+                    metrics.timeApiCall(PodSetControllerMetrics.VERB_DELETE_POD, () -> kubernetesClient.pods().inNamespace(namespace)
+                            .withName(pod.getMetadata().getName())
+                            .delete());
+                }
+            }
+            logger.info("Deleted pods of deleted PodSet {}", podSet.getMetadata().getName());
         }
+        List<String> finalizers = new ArrayList<>(podSet.getMetadata().getFinalizers());
+        finalizers.remove(POD_CLEANUP_FINALIZER);
+        updateFinalizers(podSet, finalizers);
+        expectations.deleteExpectations(Cache.metaNamespaceKeyFunc(podSet));
+    }
 
-        // If more pods then delete the pods
-        int diff = existingPods - podSet.getSpec().getReplicas();
-        for (; diff > 0; diff--) {
-            String podName = pods.remove(0);
-            kubernetesClient.pods().inNamespace(podSet.getMetadata().getNamespace()).withName(podName).delete();
+    private void addPodCleanupFinalizer(PodSet podSet) {
+        List<String> finalizers = new ArrayList<>();
+        if (podSet.getMetadata().getFinalizers() != null) {
+            finalizers.addAll(podSet.getMetadata().getFinalizers());
         }
+        finalizers.add(POD_CLEANUP_FINALIZER);
+        updateFinalizers(podSet, finalizers);
+    }
 
-        // Update PodSet status
-        updateAvailableReplicasInPodSetStatus(podSet, podSet.getSpec().getReplicas());
+    /**
+     * Replaces finalizers of PodSet, updating a copy of cached PodSet along with its resourceVersion so that a PodSet
+     * which changed in the meantime isn't overwritten. Update fails with a conflict in that case, and PodSet is retried.
+     *
+     * @param podSet specified podset
+     * @param finalizers new finalizers
+     */
+    private void updateFinalizers(PodSet podSet, List<String> finalizers) {
+        // Cached PodSet must not be modified
+        PodSet updatedPodSet = kubernetesClient.getKubernetesSerialization().clone(podSet);
+        updatedPodSet.getMetadata().setFinalizers(finalizers);
+        metrics.timeApiCall(PodSetControllerMetrics.VERB_UPDATE_FINALIZERS, () -> podSetClient.inNamespace(podSet.getMetadata().getNamespace())
+                .resource(updatedPodSet)
+                .update());
+    }
+
+    private static boolean hasPodCleanupFinalizer(PodSet podSet) {
+        List<String> finalizers = podSet.getMetadata().getFinalizers();
+        return finalizers != null && finalizers.contains(POD_CLEANUP_FINALIZER);
+    }
+
+    private void addIndexersToSharedIndexInformers() {
+        Map<String, Function<Pod, List<String>>> podIndexers = new HashMap<>();
+        podIndexers.put(Indexers.OWNER_UID_INDEX, Indexers::ownerUidIndexFunc);
+        podIndexers.put(Indexers.APP_LABEL_INDEX, Indexers::appLabelIndexFunc);
+        podIndexers.put(Indexers.TEMPLATE_HASH_INDEX, Indexers::templateHashIndexFunc);
+        podInformer.addIndexers(podIndexers);
+        podSetInformer.addIndexers(Collections.singletonMap(Indexers.UID_INDEX, Indexers::uidIndexFunc));
+    }
+
+    private void registerGauges() {
+        metrics.gauge("podset_workqueue_depth", "PodSet keys waiting in workqueue", workqueue::len);
+        metrics.gauge("podset_workqueue_resync_depth", "PodSet keys waiting in workqueue for a periodic resync only", workqueue::lowPriorityLen);
+        metrics.gauge("podset_resync_backlog", "PodSets not resynced yet in current resync period", () -> {
+            ResyncScheduler scheduler = resyncScheduler;
+            return scheduler != null ? scheduler.getBacklog() : 0;
+        });
+        metrics.gauge("podset_controller_time_to_ready_seconds", "Time from controller start until it was ready to reconcile, including informer sync",
+                () -> timeToReadyMillis / 1000d);
+        metrics.gauge("podset_slow_reconciles_total", "Reconciles exported by tracer as slow", () -> tracer.getExportedCount());
+        metrics.gauge("podset_informer_synced", "Whether informer caches are synced", () -> hasSynced() ? 1 : 0);
+        Gauge filteredEvents = metrics.gauge("podset_informer_events_filtered_total", "Informer update events dropped by predicates");
+        for (UpdatePredicate<?> updatePredicate : getUpdatePredicates()) {
+            filteredEvents.set("predicate", updatePredicate.getName(), updatePredicate::getFilteredCount);
+        }
     }
 
     private void addEventHandlersToSharedIndexInformers() {
         podSetInformer.addEventHandler(new ResourceEventHandler<PodSet>() {
             @Override
             public void onAdd(PodSet podSet) {
+                metrics.informerEvent("podset", "add");
                 logger.info("PodSet {} ADDED", podSet.getMetadata().getName());
-                enqueuePodSet(podSet);
+                enqueuePodSet(podSet, "podset add");
             }
 
             @Override
             public void onUpdate(PodSet podSet, PodSet newPodSet) {
+                metrics.informerEvent("podset", "update");
+                if (!podSetUpdatePredicate.test(podSet, newPodSet)) {
+                    return;
+                }
                 logger.info("PodSet {} MODIFIED", podSet.getMetadata().getName());
-                enqueuePodSet(newPodSet);
+                enqueuePodSet(newPodSet, "podset update");
             }
 
             @Override
-            public void onDelete(PodSet podSet, boolean b) {
-                // Do nothing
+            public void onDelete(PodSet podSet, boolean deletedFinalStateUnknown) {
+                metrics.informerEvent("podset", "delete");
+                expectations.deleteExpectations(Cache.metaNamespaceKeyFunc(podSet));
+                templateCache.remove(podSet);
+                statusUpdater.forget(Cache.metaNamespaceKeyFunc(podSet));
             }
         });
 
         podInformer.addEventHandler(new ResourceEventHandler<Pod>() {
             @Override
             public void onAdd(Pod pod) {
-                handlePodObject(pod);
+                metrics.informerEvent("pod", "add");
+                if (pod.getMetadata().getDeletionTimestamp() != null) {
+                    // Pod is already being deleted, e.g. after a restart of operator
+                    observePodDeletion(pod);
+                } else {
+                    observePodCreation(pod);
+                }
+                handlePodObject(pod, "pod add");
             }
 
             @Override
             public void onUpdate(Pod oldPod, Pod newPod) {
-                if (oldPod.getMetadata().getResourceVersion().equals(newPod.getMetadata().getResourceVersion())) {
+                metrics.informerEvent("pod", "update");
+                if (!podUpdatePredicate.test(oldPod, newPod)) {
                     return;
                 }
-                handlePodObject(newPod);
+                if (newPod.getMetadata().getDeletionTimestamp() != null) {
+                    observePodDeletion(newPod);
+                }
+                handlePodObject(newPod, "pod update");
             }
 
             @Override
-            public void onDelete(Pod pod, boolean b) {
-                // Do nothing
+            public void onDelete(Pod pod, boolean deletedFinalStateUnknown) {
+                metrics.informerEvent("pod", "delete");
+                if (deletedFinalStateUnknown) {
+                    // Deletion was missed while watch was down, pod is its last cached state
+                    logger.info("Pod {} DELETED while not watched", pod.getMetadata().getName());
+                }
+                observePodDeletion(pod);
+                // Owner replaces pod right away, rather than on its next event or resync
+                handlePodObject(pod, "pod delete");
             }
         });
     }
 
+    /**
+     * Creates pods in slow start batches. Created pods are picked up by pod informer, so
+     * there is no need to wait for each of them here. Caller sets expectations for them.
+     *
+     * @param numberOfPods number of pods to create
+     * @param podSet specified podset
+     */
     private void createPods(int numberOfPods, PodSet podSet) {
-        for (int index = 0; index < numberOfPods; index++) {
-            Pod pod = createNewPod(podSet);
-            pod = kubernetesClient.pods().inNamespace(podSet.getMetadata().getNamespace()).resource(pod).create();
-            kubernetesClient.pods().inNamespace(podSet.getMetadata().getNamespace())
-                    .withName(pod.getMetadata().getName())
-                    .waitUntilCondition(Objects::nonNull, 3, TimeUnit.SECONDS);
+        String key = Cache.metaNamespaceKeyFunc(podSet);
+        Span span = tracer.currentTrace().startSpan("create-pods").setAttribute("pods", numberOfPods);
+        SlowStartBatch.Result result = SlowStartBatch.execute(numberOfPods, SlowStartBatch.SLOW_START_INITIAL_BATCH_SIZE, apiCallExecutor,
+                () -> executionMode.runApiCall(PodSetControllerMetrics.VERB_CREATE_POD, () -> metrics.timeApiCall(PodSetControllerMetrics.VERB_CREATE_POD,
+                        () -> kubernetesClient.pods().inNamespace(podSet.getMetadata().getNamespace()).resource(templateCache.newPod(podSet)).create())));
+        span.setAttribute("created", result.getSuccesses()).end();
+        if (result.getFailure() != null) {
+            // Pods which were not created will never be observed by informer
+            expectations.lowerCreations(key, numberOfPods - result.getSuccesses());
+            logger.error("Created {} out of {} pods for {} PodSet", result.getSuccesses(), numberOfPods, podSet.getMetadata().getName());
+            throw result.getFailure();
         }
         logger.info("Created {} pods for {} PodSet", numberOfPods, podSet.getMetadata().getName());
     }
 
-    private List<String> podCountByLabel(String label, String podSetName) {
-        List<String> podNames = new ArrayList<>();
-        List<Pod> pods = podLister.list();
-
-        for (Pod pod : pods) {
-            if (pod.getMetadata().getLabels().entrySet().contains(new AbstractMap.SimpleEntry<>(label, podSetName))) {
-                if (pod.getStatus().getPhase().equals("Running") || pod.getStatus().getPhase().equals("Pending")) {
-                    podNames.add(pod.getMetadata().getName());
+    /**
+     * Deletes pods concurrently in batches of at most {@link #DELETE_BATCH_SIZE}. Unlike creations, all deletions
+     * are attempted even if some of them fail. Caller sets expectations for them.
+     *
+     * @param pods pods to delete
+     * @param podSet specified podset
+     */
+    private void deletePods(List<Pod> pods, PodSet podSet) {
+        String key = Cache.metaNamespaceKeyFunc(podSet);
+        List<String> podNames = getPodNames(pods);
+        Span span = tracer.currentTrace().startSpan("delete-pods").setAttribute("pods", podNames.size());
+        RuntimeException failure = null;
+        for (int batchStart = 0; batchStart < podNames.size(); batchStart += DELETE_BATCH_SIZE) {
+            List<CompletableFuture<Void>> batch = new ArrayList<>();
+            for (String podName : podNames.subList(batchStart, Math.min(batchStart + DELETE_BATCH_SIZE, podNames.size()))) {
+                batch.add(CompletableFuture.runAsync(() -> deletePod(key, podSet.getMetadata().getNamespace(), podName), apiCallExecutor));
+            }
+            for (CompletableFuture<Void> deletion : batch) {
+                try {
+                    deletion.join();
+                } catch (CompletionException completionException) {
+                    if (failure == null) {
+                        failure = completionException.getCause() instanceof RuntimeException ?
+                                (RuntimeException) completionException.getCause() : completionException;
+                    }
                 }
             }
         }
+        span.end();
+        if (failure != null) {
+            throw failure;
+        }
+        logger.info("Deleted {} pods for {} PodSet", podNames.size(), podSet.getMetadata().getName());
+    }
 
-        logger.info("count: {}", podNames.size());
+    private static List<String> getPodNames(List<Pod> pods) {
+        List<String> podNames = new ArrayList<>(pods.size());
+        for (Pod pod : pods) {
+            podNames.add(pod.getMetadata().getName());
+        }
         return podNames;
     }
 
-    private void enqueuePodSet(PodSet podSet) {
+    private void deletePod(String key, String namespace, String podName) {
+        try {
+            executionMode.runApiCall(PodSetControllerMetrics.VERB_DELETE_POD, () -> metrics.timeApiCall(PodSetControllerMetrics.VERB_DELETE_POD,
+                    () -> kubernetesClient.pods().inNamespace(namespace).withName(podName).delete()));
+        } catch (KubernetesClientException kubernetesClientException) {
+            // Pod deletion which failed will never be observed by informer
+            expectations.deletionObserved(key, podName);
+            throw kubernetesClientException;
+        }
+    }
+
+    /**
+     * Gets active (not terminated, not being deleted) pods controlled by this PodSet, looked up via
+     * owner UID index so it only touches the PodSet's own pods.
+     *
+     * @param podSet specified podset
+     * @return list of pods
+     */
+    private List<Pod> getActivePods(PodSet podSet) {
+        List<Pod> ownedPods = podInformer.getIndexer().byIndex(Indexers.OWNER_UID_INDEX, podSet.getMetadata().getUid());
+        List<Pod> activePods = new ArrayList<>(ownedPods.size());
+
+        for (Pod pod : ownedPods) {
+            String phase = pod.getStatus() != null ? pod.getStatus().getPhase() : null;
+            // Pods which have just been created might not have a phase yet
+            if (pod.getMetadata().getDeletionTimestamp() == null && !"Succeeded".equals(phase) && !"Failed".equals(phase)) {
+                activePods.add(pod);
+            }
+        }
+
+        logger.info("count: {}", activePods.size());
+        return activePods;
+    }
+
+    /**
+     * Gets active pods which weren't created from PodSet's current template. Pods created from current
+     * template are looked up via template hash index, rather than comparing every pod with template.
+     * <p>
+     * Pods without template hash were created before PodSets had a template, from what is now the default
+     * template. They're adopted as long as PodSet doesn't specify a template, rather than replaced.
+     *
+     * @param podSet specified podset
+     * @param activePods active pods of podset
+     * @return outdated pods
+     */
+    private List<Pod> getOutdatedPods(PodSet podSet, List<Pod> activePods) {
+        boolean defaultTemplate = podSet.getSpec().getTemplate() == null;
+        List<Pod> updatedPods = podInformer.getIndexer().byIndex(Indexers.TEMPLATE_HASH_INDEX,
+                Indexers.getTemplateHashIndexKey(podSet.getMetadata().getUid(), templateCache.getTemplateHash(podSet)));
+        if (updatedPods.isEmpty() && !defaultTemplate) {
+            return activePods;
+        }
+        Set<String> updatedPodNames = new HashSet<>(updatedPods.size());
+        for (Pod pod : updatedPods) {
+            updatedPodNames.add(pod.getMetadata().getName());
+        }
+        List<Pod> outdatedPods = new ArrayList<>();
+        for (Pod pod : activePods) {
+            if (!updatedPodNames.contains(pod.getMetadata().getName()) && !(defaultTemplate && !hasTemplateHash(pod))) {
+                outdatedPods.add(pod);
+            }
+        }
+        return outdatedPods;
+    }
+
+    private static boolean hasTemplateHash(Pod pod) {
+        Map<String, String> labels = pod.getMetadata().getLabels();
+        return labels != null && labels.containsKey(PodTemplateCache.TEMPLATE_HASH_LABEL);
+    }
+
+    private static boolean isManagedByLabelled(Pod pod) {
+        Map<String, String> labels = pod.getMetadata().getLabels();
+        return labels != null && MANAGED_BY_VALUE.equals(labels.get(MANAGED_BY_LABEL));
+    }
+
+    private void enqueuePodSet(PodSet podSet, String event) {
         logger.info("enqueuePodSet({})", podSet.getMetadata().getName());
         String key = Cache.metaNamespaceKeyFunc(podSet);
         logger.info("Going to enqueue key {}", key);
-        if (key != null && !key.isEmpty()) {
+        if (key != null && !key.isEmpty() && isManaged(key)) {
             logger.info("Adding item to workqueue");
+            tracer.eventReceived(key, event);
             workqueue.add(key);
         }
     }
 
-    private void handlePodObject(Pod pod) {
+    private void enqueueResync(String key) {
+        if (isManaged(key)) {
+            metrics.resync();
+            tracer.eventReceived(key, "resync");
+            workqueue.addLowPriority(key);
+        }
+    }
+
+    private boolean isManaged(String key) {
+        Set<String> managedNamespaces = namespaces;
+        return (managedNamespaces.isEmpty() || managedNamespaces.contains(getNamespaceOfKey(key))) && shardFilter.test(key);
+    }
+
+    static String getNamespaceOfKey(String key) {
+        int separator = key.indexOf('/');
+        return separator >= 0 ? key.substring(0, separator) : "";
+    }
+
+    void handlePodObject(Pod pod) {
+        handlePodObject(pod, "pod event");
+    }
+
+    private void handlePodObject(Pod pod, String event) {
         logger.info("handlePodObject({})", pod.getMetadata().getName());
-        OwnerReference ownerReference = getControllerOf(pod);
+        OwnerReference ownerReference = Indexers.getControllerOf(pod);
         if (ownerReference == null || !ownerReference.getKind().equalsIgnoreCase("PodSet")) {
             return;
         }
-        PodSet podSet = podSetLister.get(ownerReference.getName());
-        logger.info("PodSetLister returned {} for PodSet", podSet);
-        if (podSet != null) {
-            enqueuePodSet(podSet);
+        List<PodSet> podSets = podSetInformer.getIndexer().byIndex(Indexers.UID_INDEX, ownerReference.getUid());
+        logger.info("PodSet index returned {} for PodSet", podSets);
+        for (PodSet podSet : podSets) {
+            enqueuePodSet(podSet, event);
         }
     }
 
-    private void updateAvailableReplicasInPodSetStatus(PodSet podSet, int replicas) {
-        PodSetStatus podSetStatus = new PodSetStatus();
-        podSetStatus.setAvailableReplicas(replicas);
-        podSet.setStatus(podSetStatus);
-        podSetClient.inNamespace(podSet.getMetadata().getNamespace()).resource(podSet).replaceStatus();
+    private void observePodCreation(Pod pod) {
+        String ownerKey = getOwnerPodSetKey(pod);
+        if (ownerKey != null) {
+            expectations.creationObserved(ownerKey);
+        }
     }
 
-    private Pod createNewPod(PodSet podSet) {
-        return new PodBuilder()
-                .withNewMetadata()
-                  .withGenerateName(podSet.getMetadata().getName() + "-pod")
-                  .withNamespace(podSet.getMetadata().getNamespace())
-                  .withLabels(Collections.singletonMap(APP_LABEL, podSet.getMetadata().getName()))
-                  .addNewOwnerReference().withController(true).withKind("PodSet").withApiVersion("demo.k8s.io/v1alpha1").withName(podSet.getMetadata().getName()).withUid(podSet.getMetadata().getUid()).endOwnerReference()
-                .endMetadata()
-                .withNewSpec()
-                  .addNewContainer().withName("busybox").withImage("busybox").withCommand("sleep", "3600").endContainer()
-                .endSpec()
-                .build();
+    private void observePodDeletion(Pod pod) {
+        String ownerKey = getOwnerPodSetKey(pod);
+        if (ownerKey != null) {
+            expectations.deletionObserved(ownerKey, pod.getMetadata().getName());
+        }
     }
 
-    private OwnerReference getControllerOf(Pod pod) {
-        List<OwnerReference> ownerReferences = pod.getMetadata().getOwnerReferences();
-        for (OwnerReference ownerReference : ownerReferences) {
-            if (ownerReference.getController().equals(Boolean.TRUE)) {
-                return ownerReference;
+    private String getOwnerPodSetKey(Pod pod) {
+        OwnerReference ownerReference = Indexers.getControllerOf(pod);
+        if (ownerReference == null || !ownerReference.getKind().equalsIgnoreCase("PodSet")) {
+            return null;
+        }
+        // Owner references can only point to objects in same namespace
+        return Cache.namespaceKeyFunc(pod.getMetadata().getNamespace(), ownerReference.getName());
+    }
+
+    private PodSetStatus calculateStatus(PodSet podSet, List<Pod> pods, List<Pod> outdatedPods) {
+        int readyReplicas = 0;
+        for (Pod pod : pods) {
+            if (Readiness.isPodReady(pod)) {
+                readyReplicas++;
             }
         }
-        return null;
+        PodSetStatus podSetStatus = new PodSetStatus();
+        podSetStatus.setReplicas(pods.size());
+        podSetStatus.setReadyReplicas(readyReplicas);
+        // PodSet has no minReadySeconds, so a pod is available as soon as it's ready
+        podSetStatus.setAvailableReplicas(readyReplicas);
+        podSetStatus.setUpdatedReplicas(pods.size() - outdatedPods.size());
+        podSetStatus.setUnavailableReplicas(Math.max(0, podSet.getSpec().getReplicas() - readyReplicas));
+        podSetStatus.setObservedGeneration(podSet.getMetadata().getGeneration());
+        return podSetStatus;
     }
 }
@@ -0,0 +1,119 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.podset.operator.metrics.Counter;
+import io.fabric8.podset.operator.metrics.Gauge;
+import io.fabric8.podset.operator.metrics.Histogram;
+import io.fabric8.podset.operator.metrics.MetricsRegistry;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of controller hot paths: workqueue, reconcile, Kubernetes API calls and informer events.
+ */
+public class PodSetControllerMetrics {
+    public static final String VERB_CREATE_POD = "create_pod";
+    public static final String VERB_DELETE_POD = "delete_pod";
+    public static final String VERB_PATCH_STATUS = "patch_status";
+    public static final String VERB_DELETE_POD_COLLECTION = "delete_pod_collection";
+    public static final String VERB_UPDATE_FINALIZERS = "update_finalizers";
+
+    private final MetricsRegistry registry;
+    private final Histogram queueDuration;
+    private final Histogram reconcileDuration;
+    private final Histogram apiRequestDuration;
+    private final Counter apiRequestErrors;
+    private final Counter informerEvents;
+    private final Counter reconcileErrors;
+    private final Counter requeues;
+    private final Counter resyncs;
+
+    public PodSetControllerMetrics(MetricsRegistry registry) {
+        this.registry = registry;
+        this.queueDuration = registry.histogram("podset_workqueue_queue_duration_seconds",
+                "How long a PodSet key stays in workqueue before being picked up by a worker");
+        this.reconcileDuration = registry.histogram("podset_reconcile_duration_seconds",
+                "Time taken to reconcile a PodSet");
+        this.apiRequestDuration = registry.histogram("podset_api_request_duration_seconds",
+                "Latency of Kubernetes API calls issued by controller", "verb");
+        this.apiRequestErrors = registry.counter("podset_api_request_errors_total",
+                "Kubernetes API calls issued by controller which failed", "verb", "code");
+        this.informerEvents = registry.counter("podset_informer_events_total",
+                "Events received from informers", "resource", "event");
+        this.reconcileErrors = registry.counter("podset_reconcile_errors_total",
+                "Reconciles which failed");
+        this.requeues = registry.counter("podset_workqueue_retries_total",
+                "PodSet keys requeued with backoff after a failure");
+        this.resyncs = registry.counter("podset_resyncs_total",
+                "PodSet keys enqueued by periodic resync");
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    public long getApiRequestCount(String verb) {
+        return apiRequestDuration.getCount(verb);
+    }
+
+    public long getReconcileCount() {
+        return reconcileDuration.getCount();
+    }
+
+    public double getRequeueCount() {
+        return requeues.get();
+    }
+
+    public void observeQueueDuration(double seconds) {
+        queueDuration.observe(seconds);
+    }
+
+    public void observeReconcile(long startNanos) {
+        reconcileDuration.observeSince(startNanos);
+    }
+
+    public void informerEvent(String resource, String event) {
+        informerEvents.inc(resource, event);
+    }
+
+    public void reconcileError() {
+        reconcileErrors.inc();
+    }
+
+    public void requeue() {
+        requeues.inc();
+    }
+
+    public void resync() {
+        resyncs.inc();
+    }
+
+    public Gauge gauge(String name, String help, DoubleSupplier value) {
+        return registry.gauge(name, help, value);
+    }
+
+    public Gauge gauge(String name, String help) {
+        return registry.gauge(name, help);
+    }
+
+    /**
+     * Runs a Kubernetes API call, recording its latency and failure.
+     *
+     * @param verb kind of call, e.g. {@link #VERB_CREATE_POD}
+     * @param call API call
+     * @param <T> type returned by the call
+     * @return whatever call returned
+     */
+    public <T> T timeApiCall(String verb, Supplier<T> call) {
+        long startNanos = System.nanoTime();
+        try {
+            return call.get();
+        } catch (KubernetesClientException kubernetesClientException) {
+            apiRequestErrors.inc(verb, String.valueOf(kubernetesClientException.getCode()));
+            throw kubernetesClientException;
+        } finally {
+            apiRequestDuration.observeSince(startNanos, verb);
+        }
+    }
+}
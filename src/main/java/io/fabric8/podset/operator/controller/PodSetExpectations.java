@@ -0,0 +1,124 @@
+package io.fabric8.podset.operator.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of pod creations and deletions which the controller has issued but the pod
+ * informer hasn't observed yet. Until these are observed (or they expire), the informer cache
+ * doesn't reflect the real number of pods, so a PodSet shouldn't be scaled again.
+ * <p>
+ * Keys are PodSet keys in namespace/name format. Deletions are tracked per pod name, so a
+ * deletion observed twice (deletionTimestamp being set, and then the actual delete) only
+ * counts once.
+ */
+public class PodSetExpectations {
+    public static final long DEFAULT_EXPECTATIONS_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final Logger logger = LoggerFactory.getLogger(PodSetExpectations.class.getSimpleName());
+
+    private final ConcurrentMap<String, Expectation> expectations = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    public PodSetExpectations() {
+        this(DEFAULT_EXPECTATIONS_TTL_MILLIS);
+    }
+
+    public PodSetExpectations(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Checks whether informer has caught up with whatever the controller did for this PodSet.
+     *
+     * @param key PodSet key
+     * @return true if there are no pending expectations or they have expired
+     */
+    public boolean satisfiedExpectations(String key) {
+        Expectation expectation = expectations.get(key);
+        if (expectation == null) {
+            return true;
+        }
+        if (expectation.isFulfilled()) {
+            return true;
+        }
+        if (System.nanoTime() - expectation.timestampNanos > ttlNanos) {
+            logger.warn("Expectations for PodSet {} expired: pending creations {}, pending deletions {}",
+                    key, expectation.pendingCreations.get(), expectation.pendingDeletions.size());
+            return true;
+        }
+        logger.info("Expectations for PodSet {} not yet satisfied: pending creations {}, pending deletions {}",
+                key, expectation.pendingCreations.get(), expectation.pendingDeletions.size());
+        return false;
+    }
+
+    public void expectCreations(String key, int creations) {
+        expect(key, creations, null);
+    }
+
+    public void expectDeletions(String key, Collection<String> podNames) {
+        expect(key, 0, podNames);
+    }
+
+    /**
+     * Expects creations and deletions issued together, e.g. by a wave of a rolling update.
+     *
+     * @param key PodSet key
+     * @param creations number of pods being created
+     * @param podNames names of pods being deleted, may be null
+     */
+    public void expect(String key, int creations, Collection<String> podNames) {
+        expectations.put(key, new Expectation(creations, podNames));
+    }
+
+    public void creationObserved(String key) {
+        lowerCreations(key, 1);
+    }
+
+    /**
+     * Lowers pending creations, e.g. for creations which were never issued because of a failure.
+     *
+     * @param key PodSet key
+     * @param creations number of creations which won't be observed
+     */
+    public void lowerCreations(String key, int creations) {
+        Expectation expectation = expectations.get(key);
+        if (expectation != null) {
+            expectation.pendingCreations.addAndGet(-creations);
+        }
+    }
+
+    public void deletionObserved(String key, String podName) {
+        Expectation expectation = expectations.get(key);
+        if (expectation != null) {
+            expectation.pendingDeletions.remove(podName);
+        }
+    }
+
+    public void deleteExpectations(String key) {
+        expectations.remove(key);
+    }
+
+    private static class Expectation {
+        private final AtomicInteger pendingCreations;
+        private final Set<String> pendingDeletions = ConcurrentHashMap.newKeySet();
+        private final long timestampNanos = System.nanoTime();
+
+        Expectation(int creations, Collection<String> deletions) {
+            this.pendingCreations = new AtomicInteger(creations);
+            if (deletions != null) {
+                pendingDeletions.addAll(deletions);
+            }
+        }
+
+        boolean isFulfilled() {
+            return pendingCreations.get() <= 0 && pendingDeletions.isEmpty();
+        }
+    }
+}
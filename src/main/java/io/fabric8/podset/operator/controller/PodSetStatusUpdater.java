@@ -0,0 +1,192 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import io.fabric8.podset.operator.model.v1alpha1.PodSetStatus;
+import io.fabric8.podset.operator.tracing.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Writes PodSet status using JSON merge patches on status subresource.
+ * <p>
+ * Status which is equal to the one already in informer cache is not written at all. Status updates
+ * for the same PodSet arriving within the coalescing window are merged into a single patch carrying
+ * the latest status. Traces of reconciles waiting for a patch are held open until it's written.
+ * <p>
+ * Failed patches are retried with a per PodSet exponential backoff, tracked here rather than in workqueue:
+ * reconcile computing next status succeeds, which resets backoff of workqueue every time.
+ */
+public class PodSetStatusUpdater {
+    public static final long DEFAULT_COALESCE_WINDOW_MILLIS = 100;
+    private static final Logger logger = LoggerFactory.getLogger(PodSetStatusUpdater.class.getSimpleName());
+
+    private final MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient;
+    private final long coalesceWindowMillis;
+    private final ObjLongConsumer<String> onFailure;
+    private final RateLimiter<String> failureBackoff = new ItemExponentialFailureRateLimiter<>(5, 1000 * 1000L);
+    private final PodSetControllerMetrics metrics;
+    private final ConcurrentMap<String, PendingStatus> pendingStatuses = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates status updater.
+     *
+     * @param podSetClient client for PodSet resources
+     * @param coalesceWindowMillis how long to wait for more updates of the same PodSet before patching
+     * @param onFailure called with PodSet key and backoff delay in milliseconds when patch fails, so that it can be retried
+     * @param metrics metrics recording status patch calls
+     */
+    public PodSetStatusUpdater(MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient,
+                               long coalesceWindowMillis, ObjLongConsumer<String> onFailure, PodSetControllerMetrics metrics) {
+        this.metrics = metrics;
+        this.podSetClient = podSetClient;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.onFailure = onFailure;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "podset-status-updater");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules a status patch for PodSet, unless status is unchanged.
+     *
+     * @param podSet PodSet as seen in informer cache
+     * @param status newly computed status
+     */
+    public void updateStatus(PodSet podSet, PodSetStatus status) {
+        updateStatus(podSet, status, Trace.NOOP);
+    }
+
+    /**
+     * Schedules a status patch for PodSet, unless status is unchanged.
+     *
+     * @param podSet PodSet as seen in informer cache
+     * @param status newly computed status
+     * @param trace trace of reconcile which computed status, held open until status is written
+     */
+    public void updateStatus(PodSet podSet, PodSetStatus status, Trace trace) {
+        String key = Cache.metaNamespaceKeyFunc(podSet);
+        if (status.equals(podSet.getStatus())) {
+            // Status might have been reverted back within coalescing window
+            PendingStatus reverted = pendingStatuses.remove(key);
+            if (reverted != null) {
+                reverted.release();
+            }
+            return;
+        }
+        trace.hold();
+        PendingStatus[] previous = new PendingStatus[1];
+        PendingStatus pendingStatus = pendingStatuses.compute(key, (pendingKey, previousStatus) -> {
+            previous[0] = previousStatus;
+            return new PendingStatus(podSet.getMetadata().getNamespace(), podSet.getMetadata().getName(), status, previousStatus, trace);
+        });
+        if (previous[0] == null) {
+            try {
+                scheduler.schedule(() -> flush(key), coalesceWindowMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejectedExecutionException) {
+                logger.warn("Status updater is shut down, dropping status update of PodSet {}", key);
+                if (pendingStatuses.remove(key, pendingStatus)) {
+                    pendingStatus.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops backoff of failed patches of a deleted PodSet.
+     *
+     * @param key PodSet key
+     */
+    public void forget(String key) {
+        failureBackoff.forget(key);
+    }
+
+    public void shutDown() {
+        scheduler.shutdown();
+    }
+
+    private void flush(String key) {
+        PendingStatus pendingStatus = pendingStatuses.remove(key);
+        if (pendingStatus == null) {
+            return;
+        }
+        // Only name and status are set, so patch doesn't carry anything else
+        PodSet patch = new PodSet();
+        patch.setMetadata(new ObjectMetaBuilder().withName(pendingStatus.name).withNamespace(pendingStatus.namespace).build());
+        patch.setStatus(pendingStatus.status);
+        long flushNanos = System.nanoTime();
+        for (Trace trace : pendingStatus.traces) {
+            trace.addSpan("status-coalesce", pendingStatus.queuedNanos, flushNanos);
+        }
+        try {
+            metrics.timeApiCall(PodSetControllerMetrics.VERB_PATCH_STATUS, () -> podSetClient.inNamespace(pendingStatus.namespace)
+                    .resource(patch)
+                    .subresource("status")
+                    .patch(PatchContext.of(PatchType.JSON_MERGE)));
+            logger.info("Updated status of PodSet {} to {}", key, pendingStatus.status);
+            pendingStatus.addPatchSpans(flushNanos, null);
+            failureBackoff.forget(key);
+        } catch (KubernetesClientException kubernetesClientException) {
+            logger.error("Failed to update status of PodSet {}", key, kubernetesClientException);
+            pendingStatus.addPatchSpans(flushNanos, kubernetesClientException);
+            onFailure.accept(key, failureBackoff.when(key));
+        } finally {
+            pendingStatus.release();
+        }
+    }
+
+    private static class PendingStatus {
+        private final String namespace;
+        private final String name;
+        private final PodSetStatus status;
+        private final long queuedNanos;
+        private final List<Trace> traces = new ArrayList<>();
+
+        PendingStatus(String namespace, String name, PodSetStatus status, PendingStatus previous, Trace trace) {
+            this.namespace = namespace;
+            this.name = name;
+            this.status = status;
+            this.queuedNanos = previous != null ? previous.queuedNanos : System.nanoTime();
+            if (previous != null) {
+                traces.addAll(previous.traces);
+            }
+            traces.add(trace);
+        }
+
+        void addPatchSpans(long startNanos, KubernetesClientException failure) {
+            long endNanos = System.nanoTime();
+            for (Trace trace : traces) {
+                trace.addSpan("status-patch", startNanos, endNanos).setAttribute("coalescedUpdates", traces.size());
+                if (failure != null) {
+                    trace.setError(failure);
+                }
+            }
+        }
+
+        void release() {
+            for (Trace trace : traces) {
+                trace.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodTemplateSpec;
+import io.fabric8.kubernetes.api.model.PodTemplateSpecBuilder;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches, per PodSet, a pod built from its template along with hash of the template. Entries are rebuilt
+ * when PodSet's generation changes, so creating a pod only copies metadata of the cached one. Spec of
+ * cached pod is shared by all pods created from it, it must not be modified.
+ * <p>
+ * Template hash is stamped on pods as {@value #TEMPLATE_HASH_LABEL} label, so that pods created from an
+ * outdated template can be found via {@link Indexers#TEMPLATE_HASH_INDEX}.
+ */
+public class PodTemplateCache {
+    public static final String TEMPLATE_HASH_LABEL = "podset.fabric8.io/template-hash";
+    /**
+     * Used for PodSets which don't specify a template.
+     */
+    static final PodTemplateSpec DEFAULT_TEMPLATE = new PodTemplateSpecBuilder()
+            .withNewSpec()
+              .addNewContainer().withName("busybox").withImage("busybox").withCommand("sleep", "3600").endContainer()
+            .endSpec()
+            .build();
+    private static final String POD_SET_API_VERSION = HasMetadata.getApiVersion(PodSet.class);
+
+    private final KubernetesSerialization serialization;
+    private final Map<String, CachedTemplate> templates = new ConcurrentHashMap<>();
+
+    public PodTemplateCache(KubernetesSerialization serialization) {
+        this.serialization = serialization;
+    }
+
+    /**
+     * Creates a new pod for PodSet, not created on API server yet.
+     *
+     * @param podSet PodSet
+     * @return pod with a generated name, labels and owner reference set
+     */
+    public Pod newPod(PodSet podSet) {
+        Pod template = getCachedTemplate(podSet).pod;
+        Pod pod = new Pod();
+        pod.setApiVersion(template.getApiVersion());
+        pod.setKind(template.getKind());
+        pod.setMetadata(new ObjectMetaBuilder(template.getMetadata()).build());
+        pod.setSpec(template.getSpec());
+        return pod;
+    }
+
+    /**
+     * Gets hash of PodSet's current template.
+     *
+     * @param podSet PodSet
+     * @return template hash, as stamped on pods
+     */
+    public String getTemplateHash(PodSet podSet) {
+        return getCachedTemplate(podSet).hash;
+    }
+
+    /**
+     * Drops cached template of a deleted PodSet.
+     *
+     * @param podSet PodSet
+     */
+    public void remove(PodSet podSet) {
+        templates.remove(podSet.getMetadata().getUid());
+    }
+
+    private CachedTemplate getCachedTemplate(PodSet podSet) {
+        CachedTemplate cachedTemplate = templates.get(podSet.getMetadata().getUid());
+        if (cachedTemplate == null || !Objects.equals(cachedTemplate.generation, podSet.getMetadata().getGeneration())) {
+            cachedTemplate = buildTemplate(podSet);
+            templates.put(podSet.getMetadata().getUid(), cachedTemplate);
+        }
+        return cachedTemplate;
+    }
+
+    private CachedTemplate buildTemplate(PodSet podSet) {
+        PodTemplateSpec template = podSet.getSpec().getTemplate() != null ? podSet.getSpec().getTemplate() : DEFAULT_TEMPLATE;
+        String hash = Long.toHexString(Fnv1aHash.hash(serialization.asJson(template)));
+        ObjectMeta templateMetadata = template.getMetadata() != null ? template.getMetadata() : new ObjectMeta();
+        Pod pod = new PodBuilder()
+                .withNewMetadata()
+                  .withLabels(templateMetadata.getLabels())
+                  .withAnnotations(templateMetadata.getAnnotations())
+                  .withGenerateName(podSet.getMetadata().getName() + "-pod")
+                  .withNamespace(podSet.getMetadata().getNamespace())
+                  .addToLabels(PodSetController.APP_LABEL, podSet.getMetadata().getName())
+                  .addToLabels(PodSetController.MANAGED_BY_LABEL, PodSetController.MANAGED_BY_VALUE)
+                  .addToLabels(TEMPLATE_HASH_LABEL, hash)
+                  .addNewOwnerReference().withController(true).withKind(HasMetadata.getKind(PodSet.class)).withApiVersion(POD_SET_API_VERSION).withName(podSet.getMetadata().getName()).withUid(podSet.getMetadata().getUid()).endOwnerReference()
+                .endMetadata()
+                .withSpec(template.getSpec())
+                .build();
+        return new CachedTemplate(podSet.getMetadata().getGeneration(), pod, hash);
+    }
+
+    private static class CachedTemplate {
+        private final Long generation;
+        private final Pod pod;
+        private final String hash;
+
+        CachedTemplate(Long generation, Pod pod, String hash) {
+            this.generation = generation;
+            this.pod = pod;
+            this.hash = hash;
+        }
+    }
+}
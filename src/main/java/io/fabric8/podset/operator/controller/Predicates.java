@@ -0,0 +1,71 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.readiness.Readiness;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+
+import java.util.Objects;
+
+/**
+ * Update predicates used for filtering out informer events which can't change the outcome of reconcile.
+ */
+public final class Predicates {
+    private Predicates() { }
+
+    /**
+     * Lets through PodSet updates which changed spec (i.e. metadata.generation) or started deletion. Drops
+     * resyncs and status updates, including the ones written by controller itself.
+     *
+     * @return predicate
+     */
+    public static UpdatePredicate<PodSet> podSetGenerationChanged() {
+        return new UpdatePredicate<>("podset-generation-changed", Predicates::isGenerationChanged);
+    }
+
+    /**
+     * Lets through Pod updates which changed phase, readiness, deletion timestamp, labels or controller owner.
+     *
+     * @return predicate
+     */
+    public static UpdatePredicate<Pod> podStateChanged() {
+        return new UpdatePredicate<>("pod-state-changed", Predicates::isPodStateChanged);
+    }
+
+    static boolean isGenerationChanged(PodSet oldPodSet, PodSet newPodSet) {
+        ObjectMeta oldMetadata = oldPodSet.getMetadata();
+        ObjectMeta newMetadata = newPodSet.getMetadata();
+        if (!Objects.equals(oldMetadata.getDeletionTimestamp(), newMetadata.getDeletionTimestamp())) {
+            return true;
+        }
+        if (oldMetadata.getGeneration() == null || newMetadata.getGeneration() == null) {
+            // Server doesn't track generation, only resyncs can be told apart
+            return !Objects.equals(oldMetadata.getResourceVersion(), newMetadata.getResourceVersion());
+        }
+        return !oldMetadata.getGeneration().equals(newMetadata.getGeneration());
+    }
+
+    static boolean isPodStateChanged(Pod oldPod, Pod newPod) {
+        ObjectMeta oldMetadata = oldPod.getMetadata();
+        ObjectMeta newMetadata = newPod.getMetadata();
+        if (Objects.equals(oldMetadata.getResourceVersion(), newMetadata.getResourceVersion())) {
+            // Periodic resync
+            return false;
+        }
+        return !Objects.equals(getPhase(oldPod), getPhase(newPod)) ||
+                Readiness.isPodReady(oldPod) != Readiness.isPodReady(newPod) ||
+                !Objects.equals(oldMetadata.getDeletionTimestamp(), newMetadata.getDeletionTimestamp()) ||
+                !Objects.equals(oldMetadata.getLabels(), newMetadata.getLabels()) ||
+                !Objects.equals(getControllerUid(oldPod), getControllerUid(newPod));
+    }
+
+    private static String getPhase(Pod pod) {
+        return pod.getStatus() != null ? pod.getStatus().getPhase() : null;
+    }
+
+    private static String getControllerUid(Pod pod) {
+        OwnerReference ownerReference = Indexers.getControllerOf(pod);
+        return ownerReference != null ? ownerReference.getUid() : null;
+    }
+}
@@ -0,0 +1,31 @@
+package io.fabric8.podset.operator.controller;
+
+/**
+ * Decides how long an item has to wait before it is processed again.
+ *
+ * @param <T> type of items in the queue
+ */
+public interface RateLimiter<T> {
+    /**
+     * Gets the delay (in milliseconds) an item should wait before being added back to the queue.
+     *
+     * @param item item which is being requeued
+     * @return delay in milliseconds
+     */
+    long when(T item);
+
+    /**
+     * Stops tracking the item, called once it's been processed successfully.
+     *
+     * @param item item which is done
+     */
+    void forget(T item);
+
+    /**
+     * Gets the number of times item has been requeued since it was last forgotten.
+     *
+     * @param item item
+     * @return number of requeues
+     */
+    int numRequeues(T item);
+}
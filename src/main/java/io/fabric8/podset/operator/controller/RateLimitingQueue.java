@@ -0,0 +1,353 @@
+package io.fabric8.podset.operator.controller;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+
+/**
+ * Work queue modelled after client-go's workqueue:
+ * <ul>
+ *   <li>An item which is already waiting in the queue is not added again.</li>
+ *   <li>An item is never handed to two workers at once. If it is added while it's being
+ *   processed, it is queued again once the worker calls {@link #done(Object)}.</li>
+ *   <li>Items can be requeued with a delay computed by a {@link RateLimiter}.</li>
+ *   <li>Low priority items, e.g. periodic resyncs, are only handed out when no regular item is waiting.
+ *   A low priority item which is added again as a regular one is promoted.</li>
+ *   <li>Regular items can be split into groups (e.g. namespaces) which take turns, so that a group with
+ *   lots of items doesn't starve the others. Items of a group are handed out in order.</li>
+ * </ul>
+ *
+ * @param <T> type of items in the queue
+ */
+public class RateLimitingQueue<T> {
+    // Regular items waiting per group, and groups having items waiting in the order they take turns
+    private final Map<String, Deque<T>> queues = new HashMap<>();
+    private final Deque<String> groupTurns = new ArrayDeque<>();
+    private int queueLength;
+    // Insertion ordered, so that promoted items can be taken out in constant time
+    private final Set<T> lowPriorityQueue = new LinkedHashSet<>();
+    // Items which need processing
+    private final Set<T> dirty = new HashSet<>();
+    // Items which are being processed by a worker right now
+    private final Set<T> processing = new HashSet<>();
+    // Dirty items which have only been added with low priority
+    private final Set<T> lowPriority = new HashSet<>();
+    // When items still waiting in queue were put there
+    private final Map<T, Long> enqueuedNanos = new HashMap<>();
+    private final DoubleConsumer queueDurationObserver;
+    private final Function<T, String> groupFunction;
+    private final RateLimiter<T> rateLimiter;
+    private final ScheduledExecutorService delayingExecutor;
+    // Explicit lock rather than synchronized/wait, which would pin virtual threads waiting in get() to their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition itemAvailable = lock.newCondition();
+    private boolean shuttingDown;
+
+    public RateLimitingQueue(RateLimiter<T> rateLimiter) {
+        this(rateLimiter, seconds -> { });
+    }
+
+    /**
+     * Creates queue.
+     *
+     * @param rateLimiter rate limiter used for requeues
+     * @param queueDurationObserver gets time (in seconds) each item waited in queue before being handed out
+     */
+    public RateLimitingQueue(RateLimiter<T> rateLimiter, DoubleConsumer queueDurationObserver) {
+        this(rateLimiter, queueDurationObserver, item -> "");
+    }
+
+    /**
+     * Creates queue handing out regular items of different groups in turns.
+     *
+     * @param rateLimiter rate limiter used for requeues
+     * @param queueDurationObserver gets time (in seconds) each item waited in queue before being handed out
+     * @param groupFunction gets group of an item, e.g. namespace of a PodSet key
+     */
+    public RateLimitingQueue(RateLimiter<T> rateLimiter, DoubleConsumer queueDurationObserver, Function<T, String> groupFunction) {
+        this.rateLimiter = rateLimiter;
+        this.queueDurationObserver = queueDurationObserver;
+        this.groupFunction = groupFunction;
+        this.delayingExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workqueue-delaying");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Default controller rate limiter: per item exponential backoff from 5ms to 1000s,
+     * combined with an overall token bucket of 10 qps with a burst of 100.
+     *
+     * @param <T> type of items in the queue
+     * @return rate limiter
+     */
+    public static <T> RateLimiter<T> defaultControllerRateLimiter() {
+        return defaultControllerRateLimiter(10, 100);
+    }
+
+    /**
+     * Same as {@link #defaultControllerRateLimiter()} but with custom token bucket settings.
+     *
+     * @param qps overall requeues allowed per second
+     * @param burst maximum burst of requeues
+     * @param <T> type of items in the queue
+     * @return rate limiter
+     */
+    public static <T> RateLimiter<T> defaultControllerRateLimiter(double qps, int burst) {
+        return new MaxOfRateLimiter<>(Arrays.asList(
+                new ItemExponentialFailureRateLimiter<>(5, 1000 * 1000L),
+                new BucketRateLimiter<>(qps, burst)));
+    }
+
+    public void add(T item) {
+        lock.lock();
+        try {
+            if (shuttingDown) {
+                return;
+            }
+            if (dirty.contains(item)) {
+                if (lowPriority.remove(item) && lowPriorityQueue.remove(item)) {
+                    enqueue(item);
+                }
+                return;
+            }
+            dirty.add(item);
+            if (processing.contains(item)) {
+                return;
+            }
+            enqueue(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds item which is only handed out once no regular item is waiting, e.g. a periodic resync.
+     *
+     * @param item item to add
+     */
+    public void addLowPriority(T item) {
+        lock.lock();
+        try {
+            if (shuttingDown || dirty.contains(item)) {
+                return;
+            }
+            dirty.add(item);
+            lowPriority.add(item);
+            if (processing.contains(item)) {
+                return;
+            }
+            enqueueLowPriority(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds item after the given delay has passed.
+     *
+     * @param item item to add
+     * @param delayMillis delay in milliseconds
+     */
+    public void addAfter(T item, long delayMillis) {
+        if (isShuttingDown()) {
+            return;
+        }
+        if (delayMillis <= 0) {
+            add(item);
+            return;
+        }
+        try {
+            delayingExecutor.schedule(() -> add(item), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            // Queue has been shut down in the meantime
+        }
+    }
+
+    /**
+     * Adds item once the rate limiter says it's ok.
+     *
+     * @param item item to add
+     */
+    public void addRateLimited(T item) {
+        addAfter(item, rateLimiter.when(item));
+    }
+
+    /**
+     * Adds item once the rate limiter says it's ok, but not before a minimum delay, e.g. a backoff
+     * tracked elsewhere which {@link #forget(Object)} doesn't reset.
+     *
+     * @param item item to add
+     * @param minDelayMillis minimum delay in milliseconds
+     */
+    public void addRateLimited(T item, long minDelayMillis) {
+        addAfter(item, Math.max(minDelayMillis, rateLimiter.when(item)));
+    }
+
+    /**
+     * Indicates that we're done retrying this item, the backoff for it is reset.
+     *
+     * @param item item
+     */
+    public void forget(T item) {
+        rateLimiter.forget(item);
+    }
+
+    public int numRequeues(T item) {
+        return rateLimiter.numRequeues(item);
+    }
+
+    /**
+     * Blocks until an item can be processed. Callers must call {@link #done(Object)} once done with it.
+     * Once queue is shut down, items still waiting in it are not handed out anymore.
+     *
+     * @return item to process, or null when the queue is shutting down
+     * @throws InterruptedException in case the thread gets interrupted while waiting
+     */
+    public T get() throws InterruptedException {
+        T item;
+        Long enqueued;
+        lock.lockInterruptibly();
+        try {
+            while (queueLength == 0 && lowPriorityQueue.isEmpty() && !shuttingDown) {
+                itemAvailable.await();
+            }
+            if (shuttingDown) {
+                return null;
+            }
+            if (queueLength > 0) {
+                item = poll();
+            } else {
+                Iterator<T> lowPriorityItems = lowPriorityQueue.iterator();
+                item = lowPriorityItems.next();
+                lowPriorityItems.remove();
+            }
+            processing.add(item);
+            dirty.remove(item);
+            lowPriority.remove(item);
+            enqueued = enqueuedNanos.remove(item);
+        } finally {
+            lock.unlock();
+        }
+        if (enqueued != null) {
+            queueDurationObserver.accept((System.nanoTime() - enqueued) / 1_000_000_000d);
+        }
+        return item;
+    }
+
+    /**
+     * Marks item as done processing. If it was added again while being processed, it is queued again.
+     *
+     * @param item item
+     */
+    public void done(T item) {
+        lock.lock();
+        try {
+            processing.remove(item);
+            if (lowPriority.contains(item)) {
+                enqueueLowPriority(item);
+            } else if (dirty.contains(item)) {
+                enqueue(item);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(T item) {
+        String group = groupFunction.apply(item);
+        Deque<T> groupQueue = queues.get(group);
+        if (groupQueue == null) {
+            groupQueue = new ArrayDeque<>();
+            queues.put(group, groupQueue);
+            groupTurns.add(group);
+        }
+        groupQueue.add(item);
+        queueLength++;
+        enqueuedNanos.put(item, System.nanoTime());
+        itemAvailable.signal();
+    }
+
+    private T poll() {
+        String group = groupTurns.poll();
+        Deque<T> groupQueue = queues.get(group);
+        T item = groupQueue.poll();
+        if (groupQueue.isEmpty()) {
+            queues.remove(group);
+        } else {
+            // Group goes to the back of the line
+            groupTurns.add(group);
+        }
+        queueLength--;
+        return item;
+    }
+
+    private void enqueueLowPriority(T item) {
+        lowPriorityQueue.add(item);
+        enqueuedNanos.put(item, System.nanoTime());
+        itemAvailable.signal();
+    }
+
+    /**
+     * Gets number of items waiting in queue, low priority ones included.
+     *
+     * @return queue length
+     */
+    public int len() {
+        lock.lock();
+        try {
+            return queueLength + lowPriorityQueue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets number of low priority items waiting in queue.
+     *
+     * @return low priority queue length
+     */
+    public int lowPriorityLen() {
+        lock.lock();
+        try {
+            return lowPriorityQueue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutDown() {
+        lock.lock();
+        try {
+            shuttingDown = true;
+            delayingExecutor.shutdownNow();
+            itemAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isShuttingDown() {
+        lock.lock();
+        try {
+            return shuttingDown;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
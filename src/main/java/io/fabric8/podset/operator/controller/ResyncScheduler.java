@@ -0,0 +1,126 @@
+package io.fabric8.podset.operator.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Periodically re-reconciles every PodSet, spreading keys evenly across resync period rather than
+ * resyncing all of them at once like informer resync does. At the start of each cycle keys are
+ * ordered by a stable hash, so that every key keeps roughly the same slot and gets resynced about
+ * once per period, and each key is given a random point within its slot.
+ */
+public class ResyncScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ResyncScheduler.class.getSimpleName());
+    private static final long MAX_TICK_MILLIS = 1000;
+    private static final long MIN_TICK_MILLIS = 10;
+
+    private final long periodNanos;
+    private final Supplier<Collection<String>> keys;
+    private final Consumer<String> enqueue;
+    private final Random random;
+    private final long tickMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "podset-resync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Keys of current cycle, in order in which they are due, with their due times
+    private List<String> cycleKeys = new ArrayList<>();
+    private long[] cycleDueNanos = new long[0];
+    private int nextIndex;
+    private long cycleStartNanos;
+    private volatile int backlog;
+
+    /**
+     * Creates resync scheduler.
+     *
+     * @param periodMillis how often every key is resynced
+     * @param keys lists keys to resync, called at the start of every cycle
+     * @param enqueue called with every key when it's due
+     */
+    public ResyncScheduler(long periodMillis, Supplier<Collection<String>> keys, Consumer<String> enqueue) {
+        this(periodMillis, keys, enqueue, new Random());
+    }
+
+    ResyncScheduler(long periodMillis, Supplier<Collection<String>> keys, Consumer<String> enqueue, Random random) {
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.keys = keys;
+        this.enqueue = enqueue;
+        this.random = random;
+        this.tickMillis = Math.max(MIN_TICK_MILLIS, Math.min(MAX_TICK_MILLIS, periodMillis / 100));
+    }
+
+    public void start() {
+        logger.info("Resyncing PodSets every {} ms", TimeUnit.NANOSECONDS.toMillis(periodNanos));
+        long startNanos = System.nanoTime();
+        synchronized (this) {
+            // First cycle starts one period after start, as every PodSet is reconciled on start anyway
+            cycleStartNanos = startNanos;
+            nextIndex = 0;
+        }
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                tick(System.nanoTime());
+            } catch (RuntimeException exception) {
+                // Keep resync scheduled whatever happens
+                logger.error("Unexpected error while resyncing PodSets", exception);
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Gets number of keys of current cycle which are not due yet.
+     *
+     * @return resync backlog
+     */
+    public int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * Enqueues keys which are due.
+     *
+     * @param nowNanos current time as per {@link System#nanoTime()}
+     */
+    synchronized void tick(long nowNanos) {
+        if (nextIndex >= cycleKeys.size() && nowNanos - cycleStartNanos >= periodNanos) {
+            // A cycle running late isn't caught up with, next one just starts now
+            startCycle(nowNanos - cycleStartNanos >= 2 * periodNanos ? nowNanos : cycleStartNanos + periodNanos);
+        }
+        while (nextIndex < cycleKeys.size() && cycleDueNanos[nextIndex] - nowNanos <= 0) {
+            enqueue.accept(cycleKeys.get(nextIndex));
+            nextIndex++;
+        }
+        backlog = cycleKeys.size() - nextIndex;
+    }
+
+    private void startCycle(long startNanos) {
+        List<String> sortedKeys = new ArrayList<>(keys.get());
+        sortedKeys.sort(Comparator.comparingLong(Fnv1aHash::hash));
+        long slotNanos = sortedKeys.isEmpty() ? 0 : periodNanos / sortedKeys.size();
+        long[] dueNanos = new long[sortedKeys.size()];
+        for (int index = 0; index < dueNanos.length; index++) {
+            dueNanos[index] = startNanos + index * slotNanos + (long) (random.nextDouble() * slotNanos);
+        }
+        cycleKeys = sortedKeys;
+        cycleDueNanos = dueNanos;
+        cycleStartNanos = startNanos;
+        nextIndex = 0;
+        logger.debug("Resyncing {} PodSets over the next {} ms", sortedKeys.size(), TimeUnit.NANOSECONDS.toMillis(periodNanos));
+    }
+}
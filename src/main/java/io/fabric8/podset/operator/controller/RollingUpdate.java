@@ -0,0 +1,108 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.IntOrString;
+import io.fabric8.kubernetes.api.model.apps.DeploymentStrategy;
+import io.fabric8.kubernetes.api.model.apps.RollingUpdateDeployment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plans waves of a rolling update, the same way Deployment controller does: new pods are created as long as
+ * there are at most replicas + maxSurge pods, outdated pods are deleted as long as at least
+ * replicas - maxUnavailable pods stay ready. Each wave is planned from informer cache, so next wave
+ * only starts once pods of previous one have become ready (or been deleted).
+ */
+public final class RollingUpdate {
+    public static final String ROLLING_UPDATE_STRATEGY = "RollingUpdate";
+    public static final String RECREATE_STRATEGY = "Recreate";
+    static final IntOrString DEFAULT_MAX_SURGE = new IntOrString("25%");
+    static final IntOrString DEFAULT_MAX_UNAVAILABLE = new IntOrString("25%");
+    private static final Logger logger = LoggerFactory.getLogger(RollingUpdate.class.getSimpleName());
+
+    private final int creations;
+    private final int deletions;
+
+    private RollingUpdate(int creations, int deletions) {
+        this.creations = creations;
+        this.deletions = deletions;
+    }
+
+    /**
+     * Plans next wave of an update.
+     *
+     * @param strategy update strategy of PodSet, null for a rolling update with default limits
+     * @param replicas desired replicas
+     * @param pods number of active pods
+     * @param readyPods number of active pods which are ready
+     * @param outdatedPods number of active pods created from an outdated template
+     * @param unreadyOutdatedPods number of outdated pods which aren't ready
+     * @return pods to create and to delete in this wave
+     */
+    public static RollingUpdate planWave(DeploymentStrategy strategy, int replicas, int pods, int readyPods,
+                                         int outdatedPods, int unreadyOutdatedPods) {
+        if (strategy != null && RECREATE_STRATEGY.equals(strategy.getType())) {
+            // All outdated pods go first, new ones are created by regular scaling once they're gone
+            return new RollingUpdate(0, outdatedPods);
+        }
+        RollingUpdateDeployment rollingUpdate = strategy != null ? strategy.getRollingUpdate() : null;
+        int maxSurge = resolve(rollingUpdate != null ? rollingUpdate.getMaxSurge() : null, DEFAULT_MAX_SURGE, replicas, true);
+        int maxUnavailable = resolve(rollingUpdate != null ? rollingUpdate.getMaxUnavailable() : null, DEFAULT_MAX_UNAVAILABLE, replicas, false);
+        if (maxSurge == 0 && maxUnavailable == 0) {
+            // Update could never make progress
+            maxUnavailable = 1;
+        }
+
+        int updatedPods = pods - outdatedPods;
+        int creations = Math.max(0, Math.min(replicas + maxSurge - pods, replicas - updatedPods));
+        // Outdated pods which aren't ready don't add to availability, ready ones only above minimum availability
+        int deletableReadyPods = Math.max(0, readyPods - (replicas - maxUnavailable));
+        // Pods above replicas + maxSurge, e.g. after scaling down during an update, go anyway
+        int deletions = Math.min(outdatedPods, Math.max(unreadyOutdatedPods + deletableReadyPods, pods - (replicas + maxSurge)));
+        return new RollingUpdate(creations, deletions);
+    }
+
+    /**
+     * Resolves an absolute number or a percentage of replicas. Invalid values, e.g. "abc", fall back to
+     * default value rather than failing every reconcile of PodSet.
+     *
+     * @param value number or percentage, e.g. 25%
+     * @param defaultValue used when value isn't set or isn't valid
+     * @param replicas desired replicas
+     * @param roundUp whether percentage is rounded up, or down
+     * @return absolute number
+     */
+    static int resolve(IntOrString value, IntOrString defaultValue, int replicas, boolean roundUp) {
+        IntOrString resolvedValue = value != null && (value.getIntVal() != null || value.getStrVal() != null) ? value : defaultValue;
+        if (resolvedValue.getIntVal() != null) {
+            return Math.max(0, resolvedValue.getIntVal());
+        }
+        int percentage = parsePercentage(resolvedValue.getStrVal());
+        if (percentage < 0) {
+            logger.warn("Invalid value {} in rolling update strategy, expected a number or a percentage, using {}",
+                    resolvedValue.getStrVal(), defaultValue.getStrVal());
+            percentage = parsePercentage(defaultValue.getStrVal());
+        }
+        double absolute = percentage * replicas / 100d;
+        return (int) (roundUp ? Math.ceil(absolute) : Math.floor(absolute));
+    }
+
+    private static int parsePercentage(String value) {
+        String percentage = value.trim();
+        if (!percentage.endsWith("%")) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(percentage.substring(0, percentage.length() - 1).trim());
+        } catch (NumberFormatException numberFormatException) {
+            return -1;
+        }
+    }
+
+    public int getCreations() {
+        return creations;
+    }
+
+    public int getDeletions() {
+        return deletions;
+    }
+}
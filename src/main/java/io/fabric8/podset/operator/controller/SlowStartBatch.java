@@ -0,0 +1,75 @@
+package io.fabric8.podset.operator.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a number of calls in batches of growing size (1, 2, 4, 8...), the way ReplicaSet controller
+ * creates pods. Calls within a batch run concurrently. If any call in a batch fails, remaining
+ * batches are skipped so that a request which is bound to fail (e.g. quota exceeded) doesn't get
+ * sent hundreds of times.
+ */
+public final class SlowStartBatch {
+    public static final int SLOW_START_INITIAL_BATCH_SIZE = 1;
+
+    private SlowStartBatch() { }
+
+    /**
+     * Executes call count times in slow start batches.
+     *
+     * @param count total number of calls
+     * @param initialBatchSize size of the first batch
+     * @param executor executor for running calls of a batch concurrently
+     * @param call call to execute
+     * @return result containing number of successful calls and the first failure, if any
+     */
+    public static Result execute(int count, int initialBatchSize, Executor executor, Runnable call) {
+        int remaining = count;
+        int successes = 0;
+        for (int batchSize = Math.min(remaining, initialBatchSize); batchSize > 0; batchSize = Math.min(2 * batchSize, remaining)) {
+            List<CompletableFuture<Void>> batch = new ArrayList<>(batchSize);
+            for (int index = 0; index < batchSize; index++) {
+                batch.add(CompletableFuture.runAsync(call, executor));
+            }
+
+            RuntimeException failure = null;
+            for (CompletableFuture<Void> future : batch) {
+                try {
+                    future.join();
+                    successes++;
+                } catch (CompletionException completionException) {
+                    if (failure == null) {
+                        failure = completionException.getCause() instanceof RuntimeException ?
+                                (RuntimeException) completionException.getCause() : completionException;
+                    }
+                }
+            }
+            if (failure != null) {
+                return new Result(successes, failure);
+            }
+            remaining -= batchSize;
+        }
+        return new Result(successes, null);
+    }
+
+    public static class Result {
+        private final int successes;
+        private final RuntimeException failure;
+
+        Result(int successes, RuntimeException failure) {
+            this.successes = successes;
+            this.failure = failure;
+        }
+
+        public int getSuccesses() {
+            return successes;
+        }
+
+        public RuntimeException getFailure() {
+            return failure;
+        }
+    }
+}
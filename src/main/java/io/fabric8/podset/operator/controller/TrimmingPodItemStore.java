@@ -0,0 +1,112 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodSpec;
+import io.fabric8.kubernetes.api.model.PodStatus;
+import io.fabric8.kubernetes.client.informers.cache.BasicItemStore;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.informers.cache.ItemStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Pod informer store which strips pods down to the fields controller needs before they enter the cache:
+ * name, namespace, labels, owner references, creation/deletion timestamps, node name, phase, conditions and
+ * container restart counts. Everything else (managedFields, containers, volumes, most annotations) is dropped.
+ * <p>
+ * Pods are trimmed in place, so event handlers get trimmed pods as well.
+ */
+public class TrimmingPodItemStore implements ItemStore<Pod> {
+    /**
+     * Annotation controlling which pods are deleted first on scale down, it's kept in cache.
+     */
+    public static final String POD_DELETION_COST_ANNOTATION = "controller.kubernetes.io/pod-deletion-cost";
+
+    private final ItemStore<Pod> delegate = new BasicItemStore<>(Cache::metaNamespaceKeyFunc);
+
+    @Override
+    public String getKey(Pod pod) {
+        return delegate.getKey(pod);
+    }
+
+    @Override
+    public Pod put(String key, Pod pod) {
+        return delegate.put(key, trim(pod));
+    }
+
+    @Override
+    public Pod remove(String key) {
+        return delegate.remove(key);
+    }
+
+    @Override
+    public Stream<String> keySet() {
+        return delegate.keySet();
+    }
+
+    @Override
+    public Stream<Pod> values() {
+        return delegate.values();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public Pod get(String key) {
+        return delegate.get(key);
+    }
+
+    /**
+     * Strips pod of fields which aren't used by controller.
+     *
+     * @param pod pod to trim, it's modified in place
+     * @return trimmed pod
+     */
+    public static Pod trim(Pod pod) {
+        ObjectMeta metadata = pod.getMetadata();
+        metadata.setManagedFields(null);
+        metadata.setGenerateName(null);
+        Map<String, String> annotations = metadata.getAnnotations();
+        if (annotations != null && !annotations.isEmpty()) {
+            String deletionCost = annotations.get(POD_DELETION_COST_ANNOTATION);
+            metadata.setAnnotations(deletionCost != null ?
+                    new HashMap<>(Collections.singletonMap(POD_DELETION_COST_ANNOTATION, deletionCost)) : null);
+        }
+
+        if (pod.getSpec() != null) {
+            PodSpec spec = new PodSpec();
+            spec.setNodeName(pod.getSpec().getNodeName());
+            pod.setSpec(spec);
+        }
+
+        PodStatus status = pod.getStatus();
+        if (status != null) {
+            PodStatus trimmedStatus = new PodStatus();
+            trimmedStatus.setPhase(status.getPhase());
+            trimmedStatus.setConditions(status.getConditions());
+            if (status.getContainerStatuses() != null) {
+                // Restart counts rank pods on scale down
+                List<ContainerStatus> containerStatuses = new ArrayList<>(status.getContainerStatuses().size());
+                for (ContainerStatus containerStatus : status.getContainerStatuses()) {
+                    ContainerStatus trimmedContainerStatus = new ContainerStatus();
+                    trimmedContainerStatus.setName(containerStatus.getName());
+                    trimmedContainerStatus.setRestartCount(containerStatus.getRestartCount());
+                    containerStatuses.add(trimmedContainerStatus);
+                }
+                trimmedStatus.setContainerStatuses(containerStatuses);
+            }
+            pod.setStatus(trimmedStatus);
+        }
+        return pod;
+    }
+}
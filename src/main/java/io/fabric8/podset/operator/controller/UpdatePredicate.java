@@ -0,0 +1,48 @@
+package io.fabric8.podset.operator.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/**
+ * Decides whether an update event is relevant to the controller. Keeps count of
+ * events it let through and the ones it filtered out.
+ *
+ * @param <T> type of resource
+ */
+public class UpdatePredicate<T> {
+    private final String name;
+    private final BiPredicate<T, T> predicate;
+    private final AtomicLong passed = new AtomicLong();
+    private final AtomicLong filtered = new AtomicLong();
+
+    public UpdatePredicate(String name, BiPredicate<T, T> predicate) {
+        this.name = name;
+        this.predicate = predicate;
+    }
+
+    public boolean test(T oldResource, T newResource) {
+        if (predicate.test(oldResource, newResource)) {
+            passed.incrementAndGet();
+            return true;
+        }
+        filtered.incrementAndGet();
+        return false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getPassedCount() {
+        return passed.get();
+    }
+
+    public long getFilteredCount() {
+        return filtered.get();
+    }
+
+    @Override
+    public String toString() {
+        return "UpdatePredicate{name=" + name + ", passed=" + passed.get() + ", filtered=" + filtered.get() + "}";
+    }
+}
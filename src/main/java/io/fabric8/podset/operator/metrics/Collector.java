@@ -0,0 +1,10 @@
+package io.fabric8.podset.operator.metrics;
+
+/**
+ * A metric family which can write itself in Prometheus text exposition format.
+ */
+public interface Collector {
+    String getName();
+
+    void write(StringBuilder output);
+}
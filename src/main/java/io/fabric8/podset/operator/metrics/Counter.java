@@ -0,0 +1,55 @@
+package io.fabric8.podset.operator.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Monotonically increasing counter, optionally split by labels.
+ */
+public class Counter implements Collector {
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final Map<List<String>, DoubleAdder> children = new ConcurrentHashMap<>();
+
+    Counter(String name, String help, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public void inc(String... labelValues) {
+        add(1, labelValues);
+    }
+
+    public void add(double amount, String... labelValues) {
+        if (labelValues.length != labelNames.length) {
+            throw new IllegalArgumentException("Expected labels " + Arrays.toString(labelNames) + " for " + name);
+        }
+        children.computeIfAbsent(Arrays.asList(labelValues), key -> new DoubleAdder()).add(amount);
+    }
+
+    public double get(String... labelValues) {
+        DoubleAdder adder = children.get(Arrays.asList(labelValues));
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @Override
+    public void write(StringBuilder output) {
+        output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        output.append("# TYPE ").append(name).append(" counter\n");
+        for (Map.Entry<List<String>, DoubleAdder> child : children.entrySet()) {
+            output.append(name);
+            MetricsRegistry.writeLabels(output, labelNames, child.getKey(), null, null);
+            output.append(' ').append(child.getValue().sum()).append('\n');
+        }
+    }
+}
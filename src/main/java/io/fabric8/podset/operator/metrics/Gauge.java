@@ -0,0 +1,60 @@
+package io.fabric8.podset.operator.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Gauge whose value is read from a supplier at scrape time, optionally split by a single label.
+ */
+public class Gauge implements Collector {
+    private final String name;
+    private final String help;
+    private final Map<String, DoubleSupplier> children = new ConcurrentHashMap<>();
+    private volatile String labelName;
+
+    Gauge(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public Gauge set(DoubleSupplier value) {
+        children.put("", value);
+        return this;
+    }
+
+    /**
+     * Adds a labelled value to this gauge.
+     *
+     * @param labelName name of the label, same for all values of this gauge
+     * @param labelValue value of the label
+     * @param value supplier of gauge value
+     * @return this gauge
+     */
+    public Gauge set(String labelName, String labelValue, DoubleSupplier value) {
+        this.labelName = labelName;
+        children.put(labelValue, value);
+        return this;
+    }
+
+    @Override
+    public void write(StringBuilder output) {
+        output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        output.append("# TYPE ").append(name).append(" gauge\n");
+        for (Map.Entry<String, DoubleSupplier> child : children.entrySet()) {
+            output.append(name);
+            if (!child.getKey().isEmpty()) {
+                List<String> labelValues = Collections.singletonList(child.getKey());
+                MetricsRegistry.writeLabels(output, new String[]{labelName}, labelValues, null, null);
+            }
+            output.append(' ').append(child.getValue().getAsDouble()).append('\n');
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.fabric8.podset.operator.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of observed values (in seconds for durations), optionally split by labels.
+ */
+public class Histogram implements Collector {
+    public static final double[] DEFAULT_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final String name;
+    private final String help;
+    private final double[] buckets;
+    private final String[] labelNames;
+    private final Map<List<String>, Child> children = new ConcurrentHashMap<>();
+
+    Histogram(String name, String help, double[] buckets, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.buckets = buckets;
+        this.labelNames = labelNames;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public void observe(double value, String... labelValues) {
+        if (labelValues.length != labelNames.length) {
+            throw new IllegalArgumentException("Expected labels " + Arrays.toString(labelNames) + " for " + name);
+        }
+        children.computeIfAbsent(Arrays.asList(labelValues), key -> new Child(buckets.length)).observe(buckets, value);
+    }
+
+    /**
+     * Observes time elapsed since startNanos, in seconds.
+     *
+     * @param startNanos start time as returned by {@link System#nanoTime()}
+     * @param labelValues label values
+     */
+    public void observeSince(long startNanos, String... labelValues) {
+        observe((System.nanoTime() - startNanos) / 1_000_000_000d, labelValues);
+    }
+
+    public long getCount(String... labelValues) {
+        Child child = children.get(Arrays.asList(labelValues));
+        return child != null ? child.count.sum() : 0;
+    }
+
+    @Override
+    public void write(StringBuilder output) {
+        output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        output.append("# TYPE ").append(name).append(" histogram\n");
+        for (Map.Entry<List<String>, Child> entry : children.entrySet()) {
+            Child child = entry.getValue();
+            long cumulative = 0;
+            for (int index = 0; index <= buckets.length; index++) {
+                cumulative += child.bucketCounts.get(index);
+                output.append(name).append("_bucket");
+                MetricsRegistry.writeLabels(output, labelNames, entry.getKey(), "le", index < buckets.length ? String.valueOf(buckets[index]) : "+Inf");
+                output.append(' ').append(cumulative).append('\n');
+            }
+            output.append(name).append("_sum");
+            MetricsRegistry.writeLabels(output, labelNames, entry.getKey(), null, null);
+            output.append(' ').append(child.sum.sum()).append('\n');
+            output.append(name).append("_count");
+            MetricsRegistry.writeLabels(output, labelNames, entry.getKey(), null, null);
+            output.append(' ').append(cumulative).append('\n');
+        }
+    }
+
+    private static class Child {
+        // Non cumulative counts, last one is +Inf bucket
+        private final AtomicLongArray bucketCounts;
+        private final DoubleAdder sum = new DoubleAdder();
+        private final LongAdder count = new LongAdder();
+
+        Child(int buckets) {
+            this.bucketCounts = new AtomicLongArray(buckets + 1);
+        }
+
+        void observe(double[] buckets, double value) {
+            int index = 0;
+            while (index < buckets.length && value > buckets[index]) {
+                index++;
+            }
+            bucketCounts.incrementAndGet(index);
+            sum.add(value);
+            count.increment();
+        }
+    }
+}
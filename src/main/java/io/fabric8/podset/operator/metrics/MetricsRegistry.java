@@ -0,0 +1,70 @@
+package io.fabric8.podset.operator.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds metrics exposed by the operator and renders them in Prometheus text exposition format.
+ */
+public class MetricsRegistry {
+    private final List<Collector> collectors = new CopyOnWriteArrayList<>();
+
+    public <C extends Collector> C register(C collector) {
+        for (Collector existing : collectors) {
+            if (existing.getName().equals(collector.getName())) {
+                throw new IllegalArgumentException("Metric " + collector.getName() + " is already registered");
+            }
+        }
+        collectors.add(collector);
+        return collector;
+    }
+
+    public Counter counter(String name, String help, String... labelNames) {
+        return register(new Counter(name, help, labelNames));
+    }
+
+    public Histogram histogram(String name, String help, String... labelNames) {
+        return register(new Histogram(name, help, Histogram.DEFAULT_BUCKETS, labelNames));
+    }
+
+    public Gauge gauge(String name, String help) {
+        return register(new Gauge(name, help));
+    }
+
+    public Gauge gauge(String name, String help, DoubleSupplier value) {
+        return register(new Gauge(name, help)).set(value);
+    }
+
+    public String scrape() {
+        StringBuilder output = new StringBuilder();
+        for (Collector collector : collectors) {
+            collector.write(output);
+        }
+        return output.toString();
+    }
+
+    static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    static void writeLabels(StringBuilder output, String[] labelNames, List<String> labelValues, String extraName, String extraValue) {
+        if (labelNames.length == 0 && extraName == null) {
+            return;
+        }
+        output.append('{');
+        for (int index = 0; index < labelNames.length; index++) {
+            if (index > 0) {
+                output.append(',');
+            }
+            output.append(labelNames[index]).append("=\"").append(escape(labelValues.get(index))).append('"');
+        }
+        if (extraName != null) {
+            if (labelNames.length > 0) {
+                output.append(',');
+            }
+            output.append(extraName).append("=\"").append(extraValue).append('"');
+        }
+        output.append('}');
+    }
+}
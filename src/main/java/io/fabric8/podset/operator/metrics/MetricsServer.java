@@ -0,0 +1,73 @@
+package io.fabric8.podset.operator.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Small HTTP server exposing:
+ * <ul>
+ *   <li>/metrics: metrics in Prometheus text exposition format</li>
+ *   <li>/healthz: liveness probe, always OK while process is up</li>
+ *   <li>/readyz: readiness probe, OK once informer caches are synced</li>
+ * </ul>
+ */
+public class MetricsServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    private static final Logger logger = LoggerFactory.getLogger(MetricsServer.class.getSimpleName());
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer httpServer;
+
+    public MetricsServer(int port, MetricsRegistry metricsRegistry, BooleanSupplier ready) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        httpServer.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        httpServer.createContext("/metrics", exchange -> respond(exchange, 200, PROMETHEUS_CONTENT_TYPE, metricsRegistry::scrape));
+        httpServer.createContext("/healthz", exchange -> respond(exchange, 200, "text/plain", () -> "ok"));
+        httpServer.createContext("/readyz", exchange -> {
+            boolean isReady = ready.getAsBoolean();
+            respond(exchange, isReady ? 200 : 503, "text/plain", () -> isReady ? "ok" : "informers not synced");
+        });
+    }
+
+    public MetricsServer start() {
+        httpServer.start();
+        logger.info("Serving metrics and health probes on port {}", getPort());
+        return this;
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, Supplier<String> body) throws IOException {
+        try {
+            byte[] response = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
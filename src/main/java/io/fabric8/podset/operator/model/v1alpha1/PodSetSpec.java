@@ -1,5 +1,8 @@
 package io.fabric8.podset.operator.model.v1alpha1;
 
+import io.fabric8.kubernetes.api.model.PodTemplateSpec;
+import io.fabric8.kubernetes.api.model.apps.DeploymentStrategy;
+
 public class PodSetSpec {
     public int getReplicas() {
         return replicas;
@@ -7,12 +10,41 @@ public class PodSetSpec {
 
     @Override
     public String toString() {
-        return "PodSetSpec{replicas=" + replicas + "}";
+        return "PodSetSpec{replicas=" + replicas + ", template=" + template + ", strategy=" + strategy + "}";
     }
 
     public void setReplicas(int replicas) {
         this.replicas = replicas;
     }
 
+    /**
+     * Template of pods created for PodSet, a single busybox container is used when it's not set.
+     *
+     * @return pod template, may be null
+     */
+    public PodTemplateSpec getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(PodTemplateSpec template) {
+        this.template = template;
+    }
+
+    /**
+     * Strategy used to replace pods when template changes, either RollingUpdate (bounded by maxSurge and
+     * maxUnavailable, 25% each by default) or Recreate. A rolling update is used when it's not set.
+     *
+     * @return update strategy, may be null
+     */
+    public DeploymentStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(DeploymentStrategy strategy) {
+        this.strategy = strategy;
+    }
+
     private int replicas;
+    private PodTemplateSpec template;
+    private DeploymentStrategy strategy;
 }
@@ -1,6 +1,24 @@
 package io.fabric8.podset.operator.model.v1alpha1;
 
+import java.util.Objects;
+
 public class PodSetStatus {
+    public int getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(int replicas) {
+        this.replicas = replicas;
+    }
+
+    public int getReadyReplicas() {
+        return readyReplicas;
+    }
+
+    public void setReadyReplicas(int readyReplicas) {
+        this.readyReplicas = readyReplicas;
+    }
+
     public int getAvailableReplicas() {
         return availableReplicas;
     }
@@ -9,10 +27,73 @@ public class PodSetStatus {
         this.availableReplicas = availableReplicas;
     }
 
+    /**
+     * Gets number of active pods created from current pod template.
+     *
+     * @return updated replicas
+     */
+    public int getUpdatedReplicas() {
+        return updatedReplicas;
+    }
+
+    public void setUpdatedReplicas(int updatedReplicas) {
+        this.updatedReplicas = updatedReplicas;
+    }
+
+    /**
+     * Gets number of pods still missing to reach desired replicas with available pods, e.g. while a
+     * rolling update is in progress.
+     *
+     * @return unavailable replicas
+     */
+    public int getUnavailableReplicas() {
+        return unavailableReplicas;
+    }
+
+    public void setUnavailableReplicas(int unavailableReplicas) {
+        this.unavailableReplicas = unavailableReplicas;
+    }
+
+    public Long getObservedGeneration() {
+        return observedGeneration;
+    }
+
+    public void setObservedGeneration(Long observedGeneration) {
+        this.observedGeneration = observedGeneration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PodSetStatus that = (PodSetStatus) o;
+        return replicas == that.replicas &&
+                readyReplicas == that.readyReplicas &&
+                availableReplicas == that.availableReplicas &&
+                updatedReplicas == that.updatedReplicas &&
+                unavailableReplicas == that.unavailableReplicas &&
+                Objects.equals(observedGeneration, that.observedGeneration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(replicas, readyReplicas, availableReplicas, updatedReplicas, unavailableReplicas, observedGeneration);
+    }
+
     @Override
     public String toString() {
-        return "PodSetStatus{ availableReplicas=" + availableReplicas + "}";
+        return "PodSetStatus{ replicas=" + replicas + ", readyReplicas=" + readyReplicas +
+                ", availableReplicas=" + availableReplicas + ", updatedReplicas=" + updatedReplicas + ", unavailableReplicas=" + unavailableReplicas + ", observedGeneration=" + observedGeneration + "}";
     }
 
+    private int replicas;
+    private int readyReplicas;
     private int availableReplicas;
+    private int updatedReplicas;
+    private int unavailableReplicas;
+    private Long observedGeneration;
 }
@@ -0,0 +1,51 @@
+package io.fabric8.podset.operator.tracing;
+
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+/**
+ * Writes traces as JSON, one trace per line, either appended to a file or logged.
+ */
+public class JsonTraceExporter implements Consumer<Trace> {
+    private static final Logger logger = LoggerFactory.getLogger(JsonTraceExporter.class.getSimpleName());
+
+    private final Path file;
+    private final KubernetesSerialization serialization;
+
+    /**
+     * Creates exporter.
+     *
+     * @param file file to which traces are appended, null to log them instead
+     * @param serialization serialization of Kubernetes client
+     */
+    public JsonTraceExporter(Path file, KubernetesSerialization serialization) {
+        this.file = file;
+        this.serialization = serialization;
+    }
+
+    @Override
+    public void accept(Trace trace) {
+        String json = serialization.asJson(trace.toMap());
+        if (file == null) {
+            logger.warn("Slow reconcile of PodSet {}: {}", trace.getKey(), json);
+            return;
+        }
+        synchronized (this) {
+            try {
+                Files.write(file, Collections.singletonList(json), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }
+    }
+}
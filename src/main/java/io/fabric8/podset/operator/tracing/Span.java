@@ -0,0 +1,75 @@
+package io.fabric8.podset.operator.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timed stage of a {@link Trace}, e.g. waiting in workqueue or creating pods. Spans are ended via
+ * {@link #end()}, or by closing them in a try-with-resources block.
+ */
+public class Span implements AutoCloseable {
+    static final Span NOOP = new Span("noop", 0);
+
+    private final String name;
+    private final long startNanos;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private long endNanos = -1;
+
+    Span(String name, long startNanos) {
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Sets an attribute, e.g. number of pods created.
+     *
+     * @param key attribute name
+     * @param value attribute value, serialized to JSON as is
+     * @return this span
+     */
+    public synchronized Span setAttribute(String key, Object value) {
+        if (this != NOOP) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Ends span now, unless it has already been ended.
+     */
+    public void end() {
+        end(System.nanoTime());
+    }
+
+    synchronized void end(long endNanos) {
+        if (this.endNanos < 0 && this != NOOP) {
+            this.endNanos = endNanos;
+        }
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Gets end time of span.
+     *
+     * @return end time as per {@link System#nanoTime()}, -1 if span hasn't ended
+     */
+    public synchronized long getEndNanos() {
+        return endNanos;
+    }
+
+    public synchronized Map<String, Object> getAttributes() {
+        return new LinkedHashMap<>(attributes);
+    }
+}
@@ -0,0 +1,171 @@
+package io.fabric8.podset.operator.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trace of a PodSet reconcile, from the informer event which enqueued PodSet until the status
+ * write resulting from reconcile. A trace is held open by worker running reconcile and by every
+ * status patch it's waiting for, it ends once all of them have released it.
+ */
+public class Trace {
+    /**
+     * Trace which records nothing, used when tracing is disabled or outside of a reconcile.
+     */
+    public static final Trace NOOP = new Trace(null, "", "none", 0, 0, 0);
+
+    private final Tracer tracer;
+    private final String key;
+    private final String trigger;
+    private final int events;
+    private final long startNanos;
+    private final long startMillis;
+    private final List<Span> spans = new ArrayList<>();
+    private final AtomicInteger holds = new AtomicInteger(1);
+    private volatile String error;
+    private volatile long endNanos = -1;
+
+    Trace(Tracer tracer, String key, String trigger, int events, long startNanos, long startMillis) {
+        this.tracer = tracer;
+        this.key = key;
+        this.trigger = trigger;
+        this.events = events;
+        this.startNanos = startNanos;
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Starts a span now.
+     *
+     * @param name stage name
+     * @return span, to be ended by caller
+     */
+    public Span startSpan(String name) {
+        return addSpan(name, System.nanoTime());
+    }
+
+    /**
+     * Adds a span which has already ended, e.g. time an item spent waiting somewhere.
+     *
+     * @param name stage name
+     * @param startNanos start time as per {@link System#nanoTime()}
+     * @param endNanos end time as per {@link System#nanoTime()}
+     * @return span, ended already
+     */
+    public Span addSpan(String name, long startNanos, long endNanos) {
+        Span span = addSpan(name, startNanos);
+        span.end(endNanos);
+        return span;
+    }
+
+    private Span addSpan(String name, long startNanos) {
+        if (this == NOOP) {
+            return Span.NOOP;
+        }
+        Span span = new Span(name, startNanos);
+        synchronized (spans) {
+            spans.add(span);
+        }
+        return span;
+    }
+
+    /**
+     * Records failure of reconcile, or of a stage of it.
+     *
+     * @param throwable failure
+     */
+    public void setError(Throwable throwable) {
+        if (error == null) {
+            error = throwable.toString();
+        }
+    }
+
+    /**
+     * Keeps trace open until a matching {@link #release()}, e.g. until a status patch is written.
+     */
+    public void hold() {
+        if (this != NOOP) {
+            holds.incrementAndGet();
+        }
+    }
+
+    /**
+     * Releases trace, it ends and gets exported if slow once it's released by everyone holding it.
+     */
+    public void release() {
+        if (this != NOOP && holds.decrementAndGet() == 0) {
+            endNanos = System.nanoTime();
+            tracer.finished(this);
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets informer event which enqueued PodSet, e.g. "pod update".
+     *
+     * @return trigger
+     */
+    public String getTrigger() {
+        return trigger;
+    }
+
+    /**
+     * Gets duration of trace.
+     *
+     * @return duration in nanoseconds, -1 if trace hasn't ended
+     */
+    public long getDurationNanos() {
+        return endNanos < 0 ? -1 : endNanos - startNanos;
+    }
+
+    public List<Span> getSpans() {
+        synchronized (spans) {
+            return new ArrayList<>(spans);
+        }
+    }
+
+    /**
+     * Converts trace to a map, ready to be serialized as JSON. Offsets and durations of spans are
+     * in milliseconds, relative to trigger of trace.
+     *
+     * @return trace as map
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("key", key);
+        trace.put("trigger", trigger);
+        trace.put("events", events);
+        trace.put("startTime", Instant.ofEpochMilli(startMillis).toString());
+        trace.put("durationMillis", toMillis(getDurationNanos()));
+        if (error != null) {
+            trace.put("error", error);
+        }
+        List<Map<String, Object>> spanMaps = new ArrayList<>();
+        for (Span span : getSpans()) {
+            Map<String, Object> spanMap = new LinkedHashMap<>();
+            spanMap.put("name", span.getName());
+            spanMap.put("offsetMillis", toMillis(span.getStartNanos() - startNanos));
+            long spanEndNanos = span.getEndNanos();
+            spanMap.put("durationMillis", spanEndNanos < 0 ? null : toMillis(spanEndNanos - span.getStartNanos()));
+            Map<String, Object> attributes = span.getAttributes();
+            if (!attributes.isEmpty()) {
+                spanMap.put("attributes", attributes);
+            }
+            spanMaps.add(spanMap);
+        }
+        trace.put("spans", spanMaps);
+        return trace;
+    }
+
+    private static double toMillis(long nanos) {
+        // Microsecond precision is plenty
+        return Math.round(nanos / 1_000d) / 1_000d;
+    }
+}
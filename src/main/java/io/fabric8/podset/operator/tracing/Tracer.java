@@ -0,0 +1,168 @@
+package io.fabric8.podset.operator.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Traces PodSet reconciles and hands the slow ones over to an exporter.
+ * <p>
+ * Informer events are recorded per PodSet key as they enqueue it. Workqueue merges events for a key
+ * which is already waiting, so the trace started when a worker picks the key up begins at the first
+ * of those events and counts all of them. Trace of a reconcile is current on the thread running it,
+ * see {@link #currentTrace()} and {@link #wrap(Runnable)}.
+ */
+public class Tracer {
+    private static final Logger logger = LoggerFactory.getLogger(Tracer.class.getSimpleName());
+    private static final Tracer DISABLED = new Tracer(-1, trace -> { });
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final Consumer<Trace> exporter;
+    private final ConcurrentMap<String, Trigger> triggers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Trace> currentTrace = new ThreadLocal<>();
+    private final AtomicLong exportedCount = new AtomicLong();
+
+    /**
+     * Creates tracer.
+     *
+     * @param slowThresholdMillis traces taking at least this long are exported, a negative value disables tracing
+     * @param exporter exports slow traces
+     */
+    public Tracer(long slowThresholdMillis, Consumer<Trace> exporter) {
+        this.enabled = slowThresholdMillis >= 0;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.exporter = exporter;
+    }
+
+    /**
+     * Gets tracer which traces nothing.
+     *
+     * @return disabled tracer
+     */
+    public static Tracer disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Records an event enqueueing PodSet.
+     *
+     * @param key PodSet key
+     * @param event event, e.g. "pod update"
+     */
+    public void eventReceived(String key, String event) {
+        if (!enabled) {
+            return;
+        }
+        long nowNanos = System.nanoTime();
+        triggers.merge(key, new Trigger(event, 1, nowNanos, System.currentTimeMillis()),
+                (first, next) -> new Trigger(first.event, first.events + 1, first.nanos, first.millis));
+    }
+
+    /**
+     * Starts trace of a reconcile which is about to run, and makes it current on calling thread. Time key
+     * spent in workqueue since triggering event is recorded as first span.
+     *
+     * @param key PodSet key
+     * @return trace, to be released by caller
+     */
+    public Trace startTrace(String key) {
+        if (!enabled) {
+            return Trace.NOOP;
+        }
+        long nowNanos = System.nanoTime();
+        Trigger trigger = triggers.remove(key);
+        if (trigger == null) {
+            // E.g. PodSets enqueued after shard slice changed
+            trigger = new Trigger("unknown", 0, nowNanos, System.currentTimeMillis());
+        }
+        Trace trace = new Trace(this, key, trigger.event, trigger.events, trigger.nanos, trigger.millis);
+        trace.addSpan("workqueue", trigger.nanos, nowNanos);
+        currentTrace.set(trace);
+        return trace;
+    }
+
+    /**
+     * Gets trace of reconcile running on calling thread.
+     *
+     * @return current trace, {@link Trace#NOOP} if there is none
+     */
+    public Trace currentTrace() {
+        Trace trace = currentTrace.get();
+        return trace != null ? trace : Trace.NOOP;
+    }
+
+    /**
+     * Clears current trace of calling thread, once reconcile is done.
+     */
+    public void detach() {
+        currentTrace.remove();
+    }
+
+    /**
+     * Wraps a task handed over to another thread, so that current trace is current there too.
+     *
+     * @param task task
+     * @return task running with trace of calling thread
+     */
+    public Runnable wrap(Runnable task) {
+        Trace trace = currentTrace.get();
+        if (trace == null) {
+            return task;
+        }
+        return () -> {
+            Trace previous = currentTrace.get();
+            currentTrace.set(trace);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    currentTrace.set(previous);
+                } else {
+                    currentTrace.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * Gets number of traces exported as slow.
+     *
+     * @return exported traces
+     */
+    public long getExportedCount() {
+        return exportedCount.get();
+    }
+
+    void finished(Trace trace) {
+        if (trace.getDurationNanos() < slowThresholdNanos) {
+            return;
+        }
+        exportedCount.incrementAndGet();
+        try {
+            exporter.accept(trace);
+        } catch (RuntimeException exception) {
+            // Tracing must never break reconciles
+            logger.warn("Unable to export trace of PodSet {}", trace.getKey(), exception);
+        }
+    }
+
+    private static class Trigger {
+        private final String event;
+        private final int events;
+        private final long nanos;
+        private final long millis;
+
+        Trigger(String event, int events, long nanos, long millis) {
+            this.event = event;
+            this.events = events;
+            this.nanos = nanos;
+            this.millis = millis;
+        }
+    }
+}
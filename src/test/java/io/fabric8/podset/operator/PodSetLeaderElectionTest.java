@@ -0,0 +1,92 @@
+package io.fabric8.podset.operator;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+class PodSetLeaderElectionTest {
+    private KubernetesClient client;
+    private final List<PodSetLeaderElection> leaderElections = new ArrayList<>();
+
+    @AfterEach
+    void stopLeaderElections() {
+        for (PodSetLeaderElection leaderElection : leaderElections) {
+            leaderElection.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should let only one replica lead while other one stays in standby")
+    void testOnlyOneReplicaLeads() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        PodSetLeaderElection leader = newLeaderElection("replica-1");
+        PodSetLeaderElection standby = newLeaderElection("replica-2");
+
+        // When
+        leader.start().get(10, TimeUnit.SECONDS);
+        CompletableFuture<Void> standbyLeading = standby.start();
+
+        // Then
+        Lease lease = client.leases().inNamespace("ns1").withName(PodSetLeaderElection.DEFAULT_LEASE_NAME).get();
+        assertNotNull(lease);
+        assertEquals("replica-1", lease.getSpec().getHolderIdentity());
+        assertTrue(leader.getLeadingMillis() >= 0);
+        Thread.sleep(500);
+        assertFalse(standbyLeading.isDone());
+        assertEquals(-1, standby.getLeadingMillis());
+    }
+
+    @Test
+    @DisplayName("Should let standby replica take over right after leader stops, without waiting for lease to expire")
+    void testStandbyTakesOverWhenLeaderStops() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        AtomicInteger leaderStoppedLeading = new AtomicInteger();
+        PodSetLeaderElection leader = newLeaderElection("replica-1", leaderStoppedLeading::incrementAndGet);
+        PodSetLeaderElection standby = newLeaderElection("replica-2");
+        leader.start().get(10, TimeUnit.SECONDS);
+        CompletableFuture<Void> standbyLeading = standby.start();
+
+        // When
+        long stoppedNanos = System.nanoTime();
+        leader.stop();
+
+        // Then
+        // Lease lasts 15 seconds, standby only waits for its next retry
+        standbyLeading.get(5, TimeUnit.SECONDS);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stoppedNanos) < 5_000);
+        assertTrue(standby.getLeadingMillis() >= 0);
+        assertEquals(-1, leader.getLeadingMillis());
+        assertEquals(0, leaderStoppedLeading.get());
+        Lease lease = client.leases().inNamespace("ns1").withName(PodSetLeaderElection.DEFAULT_LEASE_NAME).get();
+        assertEquals("replica-2", lease.getSpec().getHolderIdentity());
+    }
+
+    private PodSetLeaderElection newLeaderElection(String identity) {
+        return newLeaderElection(identity, () -> { });
+    }
+
+    private PodSetLeaderElection newLeaderElection(String identity, Runnable onStopLeading) {
+        PodSetLeaderElection leaderElection = new PodSetLeaderElection(client, "ns1", PodSetLeaderElection.DEFAULT_LEASE_NAME, identity,
+                Duration.ofSeconds(15), Duration.ofSeconds(10), Duration.ofMillis(100), onStopLeading);
+        leaderElections.add(leaderElection);
+        return leaderElection;
+    }
+}
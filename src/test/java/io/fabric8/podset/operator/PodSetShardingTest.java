@@ -0,0 +1,130 @@
+package io.fabric8.podset.operator;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+class PodSetShardingTest {
+    private KubernetesClient client;
+
+    @Test
+    @DisplayName("Should split PodSets between replicas and hand them over when a replica leaves")
+    void testRebalancesWhenReplicaLeaves() throws InterruptedException {
+        // Given
+        AtomicInteger replica1Rebalances = new AtomicInteger();
+        PodSetSharding replica1 = newSharding("replica-1", replica1Rebalances::incrementAndGet);
+        PodSetSharding replica2 = newSharding("replica-2", () -> { });
+
+        // When
+        replica1.start();
+        replica2.start();
+
+        // Then
+        awaitMembers(replica1, 2);
+        assertEquals(1, replica1Rebalances.get());
+        assertEquals(new HashSet<>(Arrays.asList("replica-1", "replica-2")), replica1.getMembers());
+        assertEquals(replica1.getMembers(), replica2.getMembers());
+        int ownedByReplica1 = 0;
+        for (int index = 0; index < 100; index++) {
+            String key = "ns1/podset-" + index;
+            assertNotEquals(replica1.owns(key), replica2.owns(key));
+            ownedByReplica1 += replica1.owns(key) ? 1 : 0;
+        }
+        assertTrue(ownedByReplica1 > 0 && ownedByReplica1 < 100);
+
+        replica2.stop();
+        awaitMembers(replica1, 1);
+        assertEquals(2, replica1Rebalances.get());
+        for (int index = 0; index < 100; index++) {
+            assertTrue(replica1.owns("ns1/podset-" + index));
+        }
+        replica1.stop();
+    }
+
+    @Test
+    @DisplayName("Should stop reconciling anything once own Lease can't be renewed, before other replicas take over")
+    void testStopsReconcilingWhenRenewalsFail() throws InterruptedException {
+        // Given
+        AtomicBoolean renewalsFailing = new AtomicBoolean();
+        AtomicInteger replica2Rebalances = new AtomicInteger();
+        PodSetSharding replica1 = new PodSetSharding(client, "ns1", PodSetSharding.DEFAULT_SHARD_GROUP, "replica-1",
+                Duration.ofSeconds(1), Duration.ofMillis(100), () -> { });
+        PodSetSharding replica2 = new PodSetSharding(client, "ns1", PodSetSharding.DEFAULT_SHARD_GROUP, "replica-2",
+                Duration.ofSeconds(1), Duration.ofMillis(100), replica2Rebalances::incrementAndGet) {
+            @Override
+            void renewLease() {
+                if (renewalsFailing.get()) {
+                    throw new KubernetesClientException("API server unreachable");
+                }
+                super.renewLease();
+            }
+        };
+        replica1.start();
+        replica2.start();
+        awaitMembers(replica1, 2);
+        awaitMembers(replica2, 2);
+        int rebalancesBeforeFailure = replica2Rebalances.get();
+
+        // When
+        renewalsFailing.set(true);
+
+        // Then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (replica1.getMembers().size() != 1 && System.nanoTime() < deadline) {
+            for (int index = 0; index < 100; index++) {
+                String key = "ns1/podset-" + index;
+                // Never both replicas reconciling same PodSet
+                assertFalse(replica1.owns(key) && replica2.owns(key));
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(1, replica1.getMembers().size());
+        for (int index = 0; index < 100; index++) {
+            assertTrue(replica1.owns("ns1/podset-" + index));
+            assertFalse(replica2.owns("ns1/podset-" + index));
+        }
+
+        renewalsFailing.set(false);
+        awaitMembers(replica1, 2);
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (replica2Rebalances.get() == rebalancesBeforeFailure && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(replica2Rebalances.get() > rebalancesBeforeFailure);
+        int ownedByReplica2 = 0;
+        for (int index = 0; index < 100; index++) {
+            ownedByReplica2 += replica2.owns("ns1/podset-" + index) ? 1 : 0;
+        }
+        assertTrue(ownedByReplica2 > 0);
+        replica1.stop();
+        replica2.stop();
+    }
+
+    private void awaitMembers(PodSetSharding sharding, int members) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sharding.getMembers().size() != members && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(members, sharding.getMembers().size());
+    }
+
+    private PodSetSharding newSharding(String identity, Runnable onRebalance) {
+        return new PodSetSharding(client, "ns1", PodSetSharding.DEFAULT_SHARD_GROUP, identity,
+                Duration.ofSeconds(15), Duration.ofMillis(100), onRebalance);
+    }
+}
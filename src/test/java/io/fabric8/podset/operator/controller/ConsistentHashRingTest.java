@@ -0,0 +1,53 @@
+package io.fabric8.podset.operator.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+    private static final int KEYS = 10_000;
+
+    @Test
+    @DisplayName("Should spread keys evenly among members")
+    void testKeysAreSpreadEvenly() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("replica-1", "replica-2", "replica-3", "replica-4"));
+
+        // When
+        Map<String, Integer> keysPerMember = new HashMap<>();
+        for (int index = 0; index < KEYS; index++) {
+            keysPerMember.merge(ring.getOwner("ns1/podset-" + index), 1, Integer::sum);
+        }
+
+        // Then
+        assertEquals(4, keysPerMember.size());
+        for (int keys : keysPerMember.values()) {
+            assertTrue(keys > KEYS / 4 * 0.7 && keys < KEYS / 4 * 1.3, "Unbalanced ring: " + keysPerMember);
+        }
+    }
+
+    @Test
+    @DisplayName("Should only move keys of leaving member when a member leaves")
+    void testMemberLeavingOnlyMovesItsKeys() {
+        // Given
+        ConsistentHashRing before = new ConsistentHashRing(Arrays.asList("replica-1", "replica-2", "replica-3"));
+        ConsistentHashRing after = new ConsistentHashRing(Arrays.asList("replica-1", "replica-2"));
+
+        // When + Then
+        for (int index = 0; index < KEYS; index++) {
+            String key = "ns1/podset-" + index;
+            if (!"replica-3".equals(before.getOwner(key))) {
+                assertEquals(before.getOwner(key), after.getOwner(key));
+            }
+        }
+        assertNull(new ConsistentHashRing(Collections.emptyList()).getOwner("ns1/podset-0"));
+    }
+}
@@ -0,0 +1,64 @@
+package io.fabric8.podset.operator.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutionModeTest {
+    @Test
+    @DisplayName("Should use virtual threads only when JVM supports them")
+    void testVirtualThreadsFallBackToPlatformThreads() {
+        // Given
+        ExecutionMode executionMode = ExecutionMode.virtualThreads(1, 1);
+
+        // When
+        Thread thread = executionMode.newThreadFactory("podset-test-").newThread(() -> { });
+
+        // Then
+        assertEquals(ExecutionMode.isVirtualThreadSupported(), executionMode.isVirtualThreads());
+        assertTrue(thread.isDaemon());
+        assertTrue(thread.getName().startsWith("podset-test-"));
+    }
+
+    @Test
+    @DisplayName("Should bound API calls in flight per verb, whatever number of threads")
+    void testApiCallsAreBoundedPerVerb() {
+        // Given
+        ExecutionMode executionMode = ExecutionMode.virtualThreads(ExecutionMode.DEFAULT_MAX_RECONCILES_PER_NAMESPACE, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(8, executionMode.newThreadFactory("podset-test-"));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        // When
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int index = 0; index < 32; index++) {
+            calls.add(CompletableFuture.runAsync(() -> executionMode.runApiCall(PodSetControllerMetrics.VERB_CREATE_POD, () -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                sleep();
+                return inFlight.decrementAndGet();
+            }), executor));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).join();
+        executor.shutdown();
+
+        // Then
+        assertEquals(2, maxInFlight.get());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexersTest {
+    @Test
+    @DisplayName("Should index Pod by its controller owner UID and app label")
+    void testIndexFunctionsForOwnedPod() {
+        // Given
+        Pod pod = new PodBuilder()
+                .withNewMetadata().withName("example-podset-pod1").withNamespace("ns1")
+                .addToLabels(PodSetController.APP_LABEL, "example-podset")
+                .addNewOwnerReference().withKind("PodSet").withName("example-podset").withUid("uid-1").withController(false).endOwnerReference()
+                .addNewOwnerReference().withKind("PodSet").withName("example-podset").withUid("uid-2").withController(true).endOwnerReference()
+                .endMetadata()
+                .build();
+
+        // When + Then
+        assertEquals(Collections.singletonList("uid-2"), Indexers.ownerUidIndexFunc(pod));
+        assertEquals(Collections.singletonList("ns1/example-podset"), Indexers.appLabelIndexFunc(pod));
+    }
+
+    @Test
+    @DisplayName("Should not index Pod without controller owner or app label")
+    void testIndexFunctionsForUnownedPod() {
+        // Given
+        Pod pod = new PodBuilder().withNewMetadata().withName("pod1").withNamespace("ns1").endMetadata().build();
+
+        // When + Then
+        assertNull(Indexers.getControllerOf(pod));
+        assertTrue(Indexers.ownerUidIndexFunc(pod).isEmpty());
+        assertTrue(Indexers.appLabelIndexFunc(pod).isEmpty());
+    }
+}
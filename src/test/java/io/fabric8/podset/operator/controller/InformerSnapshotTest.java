@@ -0,0 +1,166 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.impl.BaseClient;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.impl.ListerWatcher;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+class InformerSnapshotTest {
+    private static final String TEST_NAMESPACE = "ns1";
+
+    private KubernetesMockServer server;
+    private KubernetesClient client;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    @Test
+    @DisplayName("Should start informer from saved snapshot, watching from its resourceVersion without listing all objects")
+    void testInformerStartsFromSnapshot() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        for (int index = 0; index < 3; index++) {
+            client.pods().inNamespace(TEST_NAMESPACE).resource(new PodBuilder()
+                    .withNewMetadata().withName("pod-" + index).endMetadata()
+                    .build()).create();
+        }
+        InformerSnapshot<Pod> snapshot = new InformerSnapshot<>(snapshotDirectory.resolve("pods.json.gz"), Pod.class,
+                InformerSnapshot.scope(TEST_NAMESPACE, null), client.getKubernetesSerialization());
+        SharedIndexInformer<Pod> informer = createInformer(snapshot);
+        informer.start().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertTrue(snapshot.save(informer));
+        String resourceVersion = informer.lastSyncResourceVersion();
+        informer.stop();
+        int requestsBefore = server.getRequestCount();
+        for (int index = 0; index < requestsBefore; index++) {
+            server.takeRequest();
+        }
+
+        // When
+        SharedIndexInformer<Pod> restartedInformer = createInformer(snapshot);
+        restartedInformer.start().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        snapshot.caughtUp().get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(3, restartedInformer.getStore().list().size());
+        List<String> requests = new ArrayList<>();
+        while (server.getRequestCount() > requestsBefore + requests.size()) {
+            RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+            requests.add(request.getPath());
+        }
+        restartedInformer.stop();
+        assertFalse(requests.isEmpty());
+        // Nothing changed since snapshot, a LIST of a single object tells so
+        for (String path : requests) {
+            assertTrue(path.contains("watch=true") && path.contains("resourceVersion=" + resourceVersion) || path.contains("limit=1"),
+                    "Expected only a watch and a LIST of a single object, got " + requests);
+        }
+    }
+
+    @Test
+    @DisplayName("Should list from API server when watch resumed from a snapshot which is behind doesn't catch up")
+    void testInformerBehindApiServerListsAgain() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        for (int index = 0; index < 3; index++) {
+            client.pods().inNamespace(TEST_NAMESPACE).resource(new PodBuilder()
+                    .withNewMetadata().withName("pod-" + index).endMetadata()
+                    .build()).create();
+        }
+        InformerSnapshot<Pod> snapshot = new InformerSnapshot<>(snapshotDirectory.resolve("pods.json.gz"), Pod.class,
+                InformerSnapshot.scope(TEST_NAMESPACE, null), client.getKubernetesSerialization());
+        SharedIndexInformer<Pod> informer = createInformer(snapshot);
+        informer.start().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertTrue(snapshot.save(informer));
+        informer.stop();
+        // Mock API server doesn't replay deletions to watches resuming from an older resourceVersion. A pod created in
+        // another namespace moves resourceVersion on, without informer's watch seeing any event
+        client.pods().inNamespace(TEST_NAMESPACE).withName("pod-0").delete();
+        client.pods().inNamespace("ns2").resource(new PodBuilder()
+                .withNewMetadata().withName("pod-0").endMetadata()
+                .build()).create();
+        InformerSnapshot<Pod> restartedSnapshot = new InformerSnapshot<>(snapshotDirectory.resolve("pods.json.gz"), Pod.class,
+                InformerSnapshot.scope(TEST_NAMESPACE, null), client.getKubernetesSerialization());
+        restartedSnapshot.setCatchUpTimeoutMillis(200);
+
+        // When
+        SharedIndexInformer<Pod> restartedInformer = createInformer(restartedSnapshot);
+        restartedInformer.start().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        boolean caughtUpWithSnapshot = restartedSnapshot.caughtUp().isDone();
+        restartedSnapshot.caughtUp().get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertFalse(caughtUpWithSnapshot);
+        assertEquals(Arrays.asList("pod-1", "pod-2"), restartedInformer.getStore().list().stream()
+                .map(pod -> pod.getMetadata().getName())
+                .sorted()
+                .collect(Collectors.toList()));
+        restartedInformer.stop();
+    }
+
+    @Test
+    @DisplayName("Should ignore a corrupted snapshot")
+    void testCorruptedSnapshotIsIgnored() throws IOException {
+        // Given
+        Path file = snapshotDirectory.resolve("pods.json.gz");
+        Files.write(file, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+        InformerSnapshot<Pod> snapshot = new InformerSnapshot<>(file, Pod.class, InformerSnapshot.scope(TEST_NAMESPACE, null), client.getKubernetesSerialization());
+
+        // When + Then
+        assertNull(snapshot.load());
+        assertNull(new InformerSnapshot<>(snapshotDirectory.resolve("missing.json.gz"), Pod.class,
+                InformerSnapshot.scope(TEST_NAMESPACE, null), client.getKubernetesSerialization()).load());
+    }
+
+    @Test
+    @DisplayName("Should ignore a snapshot taken with other namespaces or label selector")
+    void testSnapshotOfOtherScopeIsIgnored() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        client.pods().inNamespace(TEST_NAMESPACE).resource(new PodBuilder()
+                .withNewMetadata().withName("pod-0").endMetadata()
+                .build()).create();
+        Path file = snapshotDirectory.resolve("pods.json.gz");
+        InformerSnapshot<Pod> snapshot = new InformerSnapshot<>(file, Pod.class, InformerSnapshot.scope(TEST_NAMESPACE, null), client.getKubernetesSerialization());
+        SharedIndexInformer<Pod> informer = createInformer(snapshot);
+        informer.start().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertTrue(snapshot.save(informer));
+        informer.stop();
+
+        // When + Then
+        assertEquals(1, snapshot.load().getItems().size());
+        assertNull(new InformerSnapshot<>(file, Pod.class, InformerSnapshot.scope(null, null), client.getKubernetesSerialization()).load());
+        assertNull(new InformerSnapshot<>(file, Pod.class, InformerSnapshot.scope(TEST_NAMESPACE, "app.kubernetes.io/managed-by=podset-operator"),
+                client.getKubernetesSerialization()).load());
+    }
+
+    @SuppressWarnings("unchecked")
+    private SharedIndexInformer<Pod> createInformer(InformerSnapshot<Pod> snapshot) {
+        return snapshot.createInformer((ListerWatcher<Pod, PodList>) client.pods().inNamespace(TEST_NAMESPACE), 0,
+                client.adapt(BaseClient.class).getExecutor());
+    }
+}
@@ -0,0 +1,62 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PodDeletionOrderTest {
+    @Test
+    @DisplayName("Should delete unscheduled, pending and unready pods before ready ones")
+    void testGetPodsToDeletePrefersPodsDoingLeastWork() {
+        // Given
+        Pod unscheduled = createPod("unscheduled", null, "Pending", false, "2026-01-01T00:00:00Z");
+        Pod pending = createPod("pending", "node-1", "Pending", false, "2026-01-01T00:00:00Z");
+        Pod notReady = createPod("not-ready", "node-2", "Running", false, "2026-01-01T00:00:00Z");
+        Pod readyOld = createPod("ready-old", "node-3", "Running", true, "2026-01-01T00:00:00Z");
+        Pod readyNew = createPod("ready-new", "node-4", "Running", true, "2026-01-02T00:00:00Z");
+        List<Pod> pods = new ArrayList<>(Arrays.asList(readyOld, readyNew, notReady, pending, unscheduled));
+        Collections.shuffle(pods);
+
+        // When
+        List<Pod> podsToDelete = PodDeletionOrder.getPodsToDelete(pods, 4);
+
+        // Then
+        assertEquals(Arrays.asList(unscheduled, pending, notReady, readyNew), podsToDelete);
+    }
+
+    @Test
+    @DisplayName("Should delete pods with lower deletion cost first, then pods sharing a node")
+    void testGetPodsToDeleteHonorsDeletionCostAndSpreading() {
+        // Given
+        Pod expensive = createPod("expensive", "node-1", "Running", true, "2026-01-02T00:00:00Z");
+        expensive.getMetadata().setAnnotations(Collections.singletonMap(TrimmingPodItemStore.POD_DELETION_COST_ANNOTATION, "100"));
+        Pod alone = createPod("alone", "node-1", "Running", true, "2026-01-02T00:00:00Z");
+        Pod doubledUp1 = createPod("doubled-up1", "node-2", "Running", true, "2026-01-01T00:00:00Z");
+        Pod doubledUp2 = createPod("doubled-up2", "node-2", "Running", true, "2026-01-01T00:00:00Z");
+        Pod doubledUp3 = createPod("doubled-up3", "node-2", "Running", true, "2026-01-01T00:00:00Z");
+
+        // When
+        List<Pod> podsToDelete = PodDeletionOrder.getPodsToDelete(Arrays.asList(expensive, alone, doubledUp1, doubledUp2, doubledUp3), 4);
+
+        // Then
+        assertEquals(Arrays.asList(doubledUp1, doubledUp2, doubledUp3, alone), podsToDelete);
+    }
+
+    private Pod createPod(String name, String nodeName, String phase, boolean ready, String creationTimestamp) {
+        return new PodBuilder()
+                .withNewMetadata().withName(name).withNamespace("ns1").withCreationTimestamp(creationTimestamp).endMetadata()
+                .withNewSpec().withNodeName(nodeName).endSpec()
+                .withNewStatus().withPhase(phase)
+                .addNewCondition().withType("Ready").withStatus(ready ? "True" : "False").withLastTransitionTime(creationTimestamp).endCondition()
+                .endStatus()
+                .build();
+    }
+}
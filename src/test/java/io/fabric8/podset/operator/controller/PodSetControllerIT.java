@@ -63,7 +63,9 @@ class PodSetControllerIT {
 
         // Then
         assertTrue(getPodSetDependentPodsCount(podSet) >= 2);
-        PodSet podSetFromServer = podSetClient.inNamespace(TEST_NAMESPACE).withName(podSet.getMetadata().getName()).get();
+        // Status is written once operator observes pods becoming ready
+        PodSet podSetFromServer = podSetClient.inNamespace(TEST_NAMESPACE).withName(podSet.getMetadata().getName())
+                .waitUntilCondition(p -> p.getStatus() != null && p.getStatus().getAvailableReplicas() == 2, 1, TimeUnit.MINUTES);
         assertNotNull(podSetFromServer.getStatus());
         assertEquals(2, podSetFromServer.getStatus().getAvailableReplicas());
         podSetClient.inNamespace(TEST_NAMESPACE).withName("test-podset1").withPropagationPolicy(DeletionPropagation.FOREGROUND).delete();
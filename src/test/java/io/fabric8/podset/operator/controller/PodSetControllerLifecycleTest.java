@@ -0,0 +1,317 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.impl.BaseClient;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.impl.ListerWatcher;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.podset.operator.metrics.MetricsRegistry;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import io.fabric8.podset.operator.model.v1alpha1.PodSetSpec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+class PodSetControllerLifecycleTest {
+    private static final String TEST_NAMESPACE = "ns1";
+    private KubernetesClient client;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    @Test
+    @DisplayName("Should reconcile PodSets once started and stop after draining workers")
+    void testStartAndStop() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient = client.resources(PodSet.class);
+        podSetClient.inNamespace(TEST_NAMESPACE).resource(getPodSet("example-podset", TEST_NAMESPACE, 3)).create();
+        SharedIndexInformer<Pod> podInformer = client.pods().inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        SharedIndexInformer<PodSet> podSetInformer = podSetClient.inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        PodSetController podSetController = new PodSetController(client, podSetClient, podInformer, podSetInformer, TEST_NAMESPACE);
+
+        // When
+        podSetController.start(10_000);
+
+        // Then
+        assertTrue(podSetController.getTimeToReadyMillis() >= 0);
+        client.pods().inNamespace(TEST_NAMESPACE).withLabel(PodSetController.APP_LABEL, "example-podset")
+                .informOnCondition(pods -> pods.size() == 3)
+                .get(10, TimeUnit.SECONDS);
+        assertThrows(IllegalStateException.class, () -> podSetController.start(10_000));
+        podSetController.stop(1_000);
+        podSetController.awaitTermination();
+        assertEquals(3, client.pods().inNamespace(TEST_NAMESPACE).list().getItems().size());
+        podInformer.stop();
+        podSetInformer.stop();
+    }
+
+    @Test
+    @DisplayName("Should reconcile same named PodSets of several namespaces separately, ignoring namespaces which aren't managed")
+    void testReconcilesSeveralNamespaces() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient = client.resources(PodSet.class);
+        podSetClient.inNamespace("ns1").resource(getPodSet("example-podset", "ns1", 2)).create();
+        podSetClient.inNamespace("ns2").resource(getPodSet("example-podset", "ns2", 3)).create();
+        podSetClient.inNamespace("ns3").resource(getPodSet("example-podset", "ns3", 1)).create();
+        SharedIndexInformer<Pod> podInformer = client.pods().inAnyNamespace().runnableInformer(0);
+        SharedIndexInformer<PodSet> podSetInformer = podSetClient.inAnyNamespace().runnableInformer(0);
+        PodSetController podSetController = new PodSetController(client, podSetClient, podInformer, podSetInformer, null);
+        podSetController.setNamespaces(Arrays.asList("ns1", "ns2"));
+
+        // When
+        podSetController.start(10_000);
+
+        // Then
+        client.pods().inNamespace("ns1").informOnCondition(pods -> pods.size() == 2).get(10, TimeUnit.SECONDS);
+        client.pods().inNamespace("ns2").informOnCondition(pods -> pods.size() == 3).get(10, TimeUnit.SECONDS);
+        podSetController.stop(1_000);
+        podSetController.awaitTermination();
+        assertEquals(2, client.pods().inNamespace("ns1").list().getItems().size());
+        assertEquals(3, client.pods().inNamespace("ns2").list().getItems().size());
+        assertEquals(0, client.pods().inNamespace("ns3").list().getItems().size());
+        podInformer.stop();
+        podSetInformer.stop();
+    }
+
+    @Test
+    @DisplayName("Should adopt pods created before template hashes were stamped, instead of replacing them")
+    void testAdoptsPodsWithoutTemplateHash() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient = client.resources(PodSet.class);
+        PodSet podSet = podSetClient.inNamespace(TEST_NAMESPACE).resource(getPodSet("example-podset", TEST_NAMESPACE, 2)).create();
+        for (int index = 0; index < 2; index++) {
+            client.pods().inNamespace(TEST_NAMESPACE).resource(new PodBuilder()
+                    .withNewMetadata()
+                      .withName("example-podset-pod" + index)
+                      .addToLabels(PodSetController.APP_LABEL, "example-podset")
+                      .addToLabels(PodSetController.MANAGED_BY_LABEL, PodSetController.MANAGED_BY_VALUE)
+                      .addNewOwnerReference().withController(true).withKind("PodSet").withApiVersion("demo.fabric8.io/v1alpha1")
+                        .withName("example-podset").withUid(podSet.getMetadata().getUid()).endOwnerReference()
+                    .endMetadata()
+                    .withSpec(PodTemplateCache.DEFAULT_TEMPLATE.getSpec())
+                    .withNewStatus()
+                      .withPhase("Running")
+                      .addNewCondition().withType("Ready").withStatus("True").endCondition()
+                    .endStatus()
+                    .build()).create();
+        }
+        SharedIndexInformer<Pod> podInformer = client.pods().inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        SharedIndexInformer<PodSet> podSetInformer = podSetClient.inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        PodSetControllerMetrics metrics = new PodSetControllerMetrics(new MetricsRegistry());
+        PodSetController podSetController = new PodSetController(client, podSetClient, podInformer, podSetInformer, TEST_NAMESPACE,
+                PodSetController.DEFAULT_WORKER_COUNT, RateLimitingQueue.defaultControllerRateLimiter(), metrics);
+
+        // When
+        podSetController.start(10_000);
+
+        // Then
+        awaitCondition(() -> podSetInformer.getStore().list().stream()
+                .allMatch(cached -> cached.getStatus() != null && cached.getStatus().getUpdatedReplicas() == 2));
+        assertEquals(0, metrics.getApiRequestCount(PodSetControllerMetrics.VERB_CREATE_POD));
+        assertEquals(0, metrics.getApiRequestCount(PodSetControllerMetrics.VERB_DELETE_POD));
+        assertEquals(2, client.pods().inNamespace(TEST_NAMESPACE).list().getItems().size());
+        podSetController.stop(1_000);
+        podInformer.stop();
+        podSetInformer.stop();
+    }
+
+    @Test
+    @DisplayName("Should keep worker alive when reconcile throws, and retry PodSet with backoff until it converges")
+    void testRetriesFailedReconcileWithBackoff() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient = client.resources(PodSet.class);
+        podSetClient.inNamespace(TEST_NAMESPACE).resource(getPodSet("example-podset", TEST_NAMESPACE, 3)).create();
+        SharedIndexInformer<Pod> podInformer = client.pods().inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        SharedIndexInformer<PodSet> podSetInformer = podSetClient.inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        PodSetControllerMetrics metrics = new PodSetControllerMetrics(new MetricsRegistry());
+        List<Long> reconcileNanos = Collections.synchronizedList(new ArrayList<>());
+        // Single worker, so the one which failed has to be the one retrying
+        PodSetController podSetController = new PodSetController(client, podSetClient, podInformer, podSetInformer, TEST_NAMESPACE,
+                1, new ItemExponentialFailureRateLimiter<>(300, 1_000), metrics) {
+            @Override
+            protected void reconcile(PodSet podSet) {
+                reconcileNanos.add(System.nanoTime());
+                if (reconcileNanos.size() == 1) {
+                    throw new IllegalStateException("Reconcile failed");
+                }
+                super.reconcile(podSet);
+            }
+        };
+
+        // When
+        podSetController.start(10_000);
+
+        // Then
+        awaitCondition(() -> podInformer.getStore().list().size() == 3);
+        assertTrue(reconcileNanos.size() >= 2);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(reconcileNanos.get(1) - reconcileNanos.get(0)) >= 250);
+        assertEquals(1, metrics.getRequeueCount());
+        podSetController.stop(1_000);
+        podInformer.stop();
+        podSetInformer.stop();
+    }
+
+    @Test
+    @DisplayName("Should delete pods of a deleted PodSet with a single call in finalizer mode, and drop finalizer")
+    void testFinalizerCleansUpPods() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient = client.resources(PodSet.class);
+        podSetClient.inNamespace(TEST_NAMESPACE).resource(getPodSet("example-podset", TEST_NAMESPACE, 3)).create();
+        SharedIndexInformer<Pod> podInformer = client.pods().inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        SharedIndexInformer<PodSet> podSetInformer = podSetClient.inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        PodSetControllerMetrics metrics = new PodSetControllerMetrics(new MetricsRegistry());
+        PodSetController podSetController = new PodSetController(client, podSetClient, podInformer, podSetInformer, TEST_NAMESPACE,
+                PodSetController.DEFAULT_WORKER_COUNT, RateLimitingQueue.defaultControllerRateLimiter(), metrics);
+        podSetController.setFinalizerEnabled(true);
+        podSetController.start(10_000);
+        client.pods().inNamespace(TEST_NAMESPACE).informOnCondition(pods -> pods.size() == 3).get(10, TimeUnit.SECONDS);
+        awaitCondition(() -> podSetInformer.getStore().list().stream()
+                .allMatch(podSet -> podSet.getMetadata().getFinalizers().contains(PodSetController.POD_CLEANUP_FINALIZER)));
+
+        // When
+        podSetClient.inNamespace(TEST_NAMESPACE).withName("example-podset").delete();
+
+        // Then
+        // Informers of controller see PodSet and pods go away
+        awaitCondition(() -> podSetInformer.getStore().list().isEmpty() && podInformer.getStore().list().isEmpty());
+        assertEquals(1, metrics.getApiRequestCount(PodSetControllerMetrics.VERB_DELETE_POD_COLLECTION));
+        assertEquals(0, metrics.getApiRequestCount(PodSetControllerMetrics.VERB_DELETE_POD));
+        podSetController.stop(1_000);
+        podInformer.stop();
+        podSetInformer.stop();
+    }
+
+    @Test
+    @DisplayName("Should count and clean up pods created by older versions without managed-by label")
+    void testHandlesPodsWithoutManagedByLabel() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient = client.resources(PodSet.class);
+        PodSet podSet = podSetClient.inNamespace(TEST_NAMESPACE).resource(getPodSet("example-podset", TEST_NAMESPACE, 2)).create();
+        client.pods().inNamespace(TEST_NAMESPACE).resource(new PodBuilder()
+                .withNewMetadata()
+                  .withName("example-podset-pod-old")
+                  .addToLabels(PodSetController.APP_LABEL, "example-podset")
+                  .addNewOwnerReference().withController(true).withKind("PodSet").withApiVersion("demo.fabric8.io/v1alpha1")
+                    .withName("example-podset").withUid(podSet.getMetadata().getUid()).endOwnerReference()
+                .endMetadata()
+                .withSpec(PodTemplateCache.DEFAULT_TEMPLATE.getSpec())
+                .build()).create();
+        SharedIndexInformer<Pod> podInformer = client.pods().inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        SharedIndexInformer<PodSet> podSetInformer = podSetClient.inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        PodSetControllerMetrics metrics = new PodSetControllerMetrics(new MetricsRegistry());
+        PodSetController podSetController = new PodSetController(client, podSetClient, podInformer, podSetInformer, TEST_NAMESPACE,
+                PodSetController.DEFAULT_WORKER_COUNT, RateLimitingQueue.defaultControllerRateLimiter(), metrics);
+        podSetController.setFinalizerEnabled(true);
+
+        // When
+        podSetController.start(10_000);
+        awaitCondition(() -> podInformer.getStore().list().size() == 2 && podSetInformer.getStore().list().stream()
+                .allMatch(cached -> cached.getMetadata().getFinalizers().contains(PodSetController.POD_CLEANUP_FINALIZER)));
+        podSetClient.inNamespace(TEST_NAMESPACE).withName("example-podset").delete();
+
+        // Then
+        awaitCondition(() -> podSetInformer.getStore().list().isEmpty() && podInformer.getStore().list().isEmpty());
+        assertEquals(1, metrics.getApiRequestCount(PodSetControllerMetrics.VERB_CREATE_POD));
+        assertEquals(1, metrics.getApiRequestCount(PodSetControllerMetrics.VERB_DELETE_POD_COLLECTION));
+        assertEquals(1, metrics.getApiRequestCount(PodSetControllerMetrics.VERB_DELETE_POD));
+        assertEquals(0, client.pods().inNamespace(TEST_NAMESPACE).list().getItems().size());
+        podSetController.stop(1_000);
+        podInformer.stop();
+        podSetInformer.stop();
+    }
+
+    @Test
+    @DisplayName("Should hold workers back until pod informer started from a snapshot which is behind caught up with API server")
+    void testWaitsForSnapshotToCatchUp() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient = client.resources(PodSet.class);
+        podSetClient.inNamespace(TEST_NAMESPACE).resource(getPodSet("example-podset", TEST_NAMESPACE, 3)).create();
+        InformerSnapshot<Pod> snapshot = new InformerSnapshot<>(snapshotDirectory.resolve("pods.json.gz"), Pod.class,
+                InformerSnapshot.scope(TEST_NAMESPACE, null), client.getKubernetesSerialization());
+        SharedIndexInformer<Pod> podInformer = createPodInformer(snapshot);
+        SharedIndexInformer<PodSet> podSetInformer = podSetClient.inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        PodSetController podSetController = new PodSetController(client, podSetClient, podInformer, podSetInformer, TEST_NAMESPACE);
+        podSetController.start(10_000);
+        awaitCondition(() -> podInformer.getStore().list().size() == 3);
+        podSetController.stop(1_000);
+        assertTrue(snapshot.save(podInformer));
+        podInformer.stop();
+        podSetInformer.stop();
+        // While operator is down, a pod goes away and PodSet is scaled down to match. Mock API server won't replay
+        // deletion of pod to resumed watch
+        client.pods().inNamespace(TEST_NAMESPACE).delete(client.pods().inNamespace(TEST_NAMESPACE).list().getItems().get(0));
+        podSetClient.inNamespace(TEST_NAMESPACE).withName("example-podset")
+                .patch(PatchContext.of(PatchType.JSON_MERGE), "{\"spec\":{\"replicas\":2}}");
+        InformerSnapshot<Pod> restartedSnapshot = new InformerSnapshot<>(snapshotDirectory.resolve("pods.json.gz"), Pod.class,
+                InformerSnapshot.scope(TEST_NAMESPACE, null), client.getKubernetesSerialization());
+        restartedSnapshot.setCatchUpTimeoutMillis(200);
+        SharedIndexInformer<Pod> restartedPodInformer = createPodInformer(restartedSnapshot);
+        SharedIndexInformer<PodSet> restartedPodSetInformer = podSetClient.inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        PodSetControllerMetrics metrics = new PodSetControllerMetrics(new MetricsRegistry());
+        PodSetController restartedPodSetController = new PodSetController(client, podSetClient, restartedPodInformer, restartedPodSetInformer,
+                TEST_NAMESPACE, PodSetController.DEFAULT_WORKER_COUNT, RateLimitingQueue.defaultControllerRateLimiter(), metrics);
+        restartedPodSetController.setCachesCaughtUp(restartedSnapshot.caughtUp());
+
+        // When
+        restartedPodSetController.start(10_000);
+
+        // Then
+        // Stale pod cache would have had controller delete one of the two pods left
+        awaitCondition(() -> restartedPodSetInformer.getStore().list().stream()
+                .allMatch(podSet -> podSet.getStatus() != null && podSet.getStatus().getReplicas() == 2));
+        assertEquals(0, metrics.getApiRequestCount(PodSetControllerMetrics.VERB_CREATE_POD));
+        assertEquals(0, metrics.getApiRequestCount(PodSetControllerMetrics.VERB_DELETE_POD));
+        assertEquals(2, client.pods().inNamespace(TEST_NAMESPACE).list().getItems().size());
+        restartedPodSetController.stop(1_000);
+        restartedPodInformer.stop();
+        restartedPodSetInformer.stop();
+    }
+
+    @SuppressWarnings("unchecked")
+    private SharedIndexInformer<Pod> createPodInformer(InformerSnapshot<Pod> snapshot) {
+        return snapshot.createInformer((ListerWatcher<Pod, PodList>) client.pods().inNamespace(TEST_NAMESPACE), 0,
+                client.adapt(BaseClient.class).getExecutor());
+    }
+
+    private void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10 seconds");
+            Thread.sleep(50);
+        }
+    }
+
+    private PodSet getPodSet(String name, String namespace, int replicas) {
+        PodSetSpec podSetSpec = new PodSetSpec();
+        podSetSpec.setReplicas(replicas);
+        PodSet podSet = new PodSet();
+        podSet.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace(namespace).build());
+        podSet.setSpec(podSetSpec);
+        return podSet;
+    }
+}
@@ -0,0 +1,214 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.podset.operator.metrics.MetricsRegistry;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import io.fabric8.podset.operator.model.v1alpha1.PodSetSpec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Load test running controller against mock API server in CRUD mode. It creates many PodSets,
+ * changes replicas of some of them and deletes pods at random, measuring after each phase how
+ * long controller takes to converge and how many API calls it issues. Run it with:
+ * <p>
+ * mvn verify -Pscale-test -Dpodset.scale.podSets=1000
+ * <p>
+ * Tunables (system properties): podset.scale.podSets, podset.scale.replicas, podset.scale.workers,
+ * podset.scale.virtualThreads, podset.scale.churnPercent, podset.scale.seed and podset.scale.timeoutSeconds.
+ */
+@EnableKubernetesMockClient(crud = true)
+class PodSetControllerScaleIT {
+    private static final String TEST_NAMESPACE = "ns1";
+    private static final int POD_SETS = Integer.getInteger("podset.scale.podSets", 200);
+    private static final int REPLICAS = Integer.getInteger("podset.scale.replicas", 3);
+    private static final int WORKERS = Integer.getInteger("podset.scale.workers", PodSetController.DEFAULT_WORKER_COUNT);
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("podset.scale.virtualThreads");
+    private static final int CHURN_PERCENT = Integer.getInteger("podset.scale.churnPercent", 20);
+    private static final long SEED = Long.getLong("podset.scale.seed", 42L);
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("podset.scale.timeoutSeconds", 300L));
+
+    private KubernetesMockServer server;
+    private KubernetesClient client;
+
+    private final Random random = new Random(SEED);
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    private final AtomicLong peakHeap = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final AtomicInteger peakThreads = new AtomicInteger();
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private ScheduledExecutorService sampler;
+    private MixedOperation<PodSet, KubernetesResourceList<PodSet>, Resource<PodSet>> podSetClient;
+    private SharedIndexInformer<Pod> podInformer;
+    private SharedIndexInformer<PodSet> podSetInformer;
+    private PodSetController podSetController;
+    private PodSetControllerMetrics metrics;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+        if (podSetController != null) {
+            podSetController.stop(1_000);
+        }
+        if (podInformer != null) {
+            podInformer.stop();
+            podSetInformer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should converge after creating PodSets, changing their replicas and deleting pods at random")
+    void testConvergesUnderChurn() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        podSetClient = client.resources(PodSet.class);
+        podInformer = client.pods().inNamespace(TEST_NAMESPACE)
+                .withLabel(PodSetController.MANAGED_BY_LABEL, PodSetController.MANAGED_BY_VALUE)
+                .runnableInformer(0);
+        podSetInformer = podSetClient.inNamespace(TEST_NAMESPACE).runnableInformer(0);
+        metrics = new PodSetControllerMetrics(new MetricsRegistry());
+        ExecutionMode executionMode = VIRTUAL_THREADS ?
+                ExecutionMode.virtualThreads(ExecutionMode.DEFAULT_MAX_RECONCILES_PER_NAMESPACE, ExecutionMode.DEFAULT_MAX_API_CALLS_PER_VERB) :
+                ExecutionMode.platformThreads();
+        podSetController = new PodSetController(client, podSetClient, podInformer, podSetInformer, TEST_NAMESPACE,
+                WORKERS, RateLimitingQueue.defaultControllerRateLimiter(), metrics, executionMode);
+        podSetController.start(TIMEOUT_MILLIS);
+        startSampling();
+        System.out.printf("Scale test: %d PodSets x %d replicas, %d workers on %s, %d%% churn, seed %d%n",
+                POD_SETS, REPLICAS, WORKERS, executionMode, CHURN_PERCENT, SEED);
+        System.out.printf("%-16s %-12s %-14s %-12s %-12s %-14s %-16s %-12s %-12s%n",
+                "phase", "converged", "requests/set", "creates", "deletes", "status-patches", "peak-heap-mb", "peak-queue", "peak-threads");
+
+        // When + Then
+        runPhase("create", () -> {
+            for (int index = 0; index < POD_SETS; index++) {
+                podSetClient.inNamespace(TEST_NAMESPACE).resource(getPodSet("podset-" + index, REPLICAS)).create();
+            }
+        });
+        runPhase("scale-replicas", () -> {
+            for (String name : pickPodSetNames()) {
+                int replicas = 1 + random.nextInt(REPLICAS * 2);
+                podSetClient.inNamespace(TEST_NAMESPACE).withName(name).edit(podSet -> {
+                    podSet.getSpec().setReplicas(replicas);
+                    return podSet;
+                });
+            }
+        });
+        runPhase("delete-pods", () -> {
+            List<Pod> pods = new ArrayList<>(podInformer.getStore().list());
+            Collections.shuffle(pods, random);
+            for (Pod pod : pods.subList(0, pods.size() * CHURN_PERCENT / 100)) {
+                client.pods().inNamespace(TEST_NAMESPACE).withName(pod.getMetadata().getName()).delete();
+            }
+        });
+    }
+
+    private void runPhase(String phase, Runnable action) throws InterruptedException {
+        long requestsBefore = server.getRequestCount();
+        long createsBefore = metrics.getApiRequestCount(PodSetControllerMetrics.VERB_CREATE_POD);
+        long deletesBefore = metrics.getApiRequestCount(PodSetControllerMetrics.VERB_DELETE_POD);
+        long patchesBefore = metrics.getApiRequestCount(PodSetControllerMetrics.VERB_PATCH_STATUS);
+        peakHeap.set(0);
+        peakQueueDepth.set(0);
+        peakThreads.set(0);
+        long startedNanos = System.nanoTime();
+
+        action.run();
+        awaitConvergence(phase);
+
+        long convergedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        System.out.printf("%-16s %-12s %-14.1f %-12d %-12d %-14d %-16d %-12d %-12d%n",
+                phase,
+                convergedMillis + " ms",
+                (server.getRequestCount() - requestsBefore) / (double) POD_SETS,
+                metrics.getApiRequestCount(PodSetControllerMetrics.VERB_CREATE_POD) - createsBefore,
+                metrics.getApiRequestCount(PodSetControllerMetrics.VERB_DELETE_POD) - deletesBefore,
+                metrics.getApiRequestCount(PodSetControllerMetrics.VERB_PATCH_STATUS) - patchesBefore,
+                peakHeap.get() / (1024 * 1024),
+                peakQueueDepth.get(),
+                peakThreads.get());
+    }
+
+    /**
+     * Waits until every PodSet has as many active pods as it wants and its status says so.
+     */
+    private void awaitConvergence(String phase) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (!isConverged()) {
+            if (System.nanoTime() > deadline) {
+                fail("PodSets did not converge within " + TIMEOUT_MILLIS + " ms after " + phase);
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private boolean isConverged() {
+        List<PodSet> podSets = podSetInformer.getStore().list();
+        if (podSets.size() != POD_SETS) {
+            return false;
+        }
+        for (PodSet podSet : podSets) {
+            int replicas = podSet.getSpec().getReplicas();
+            List<Pod> pods = podInformer.getIndexer().byIndex(Indexers.OWNER_UID_INDEX, podSet.getMetadata().getUid());
+            if (pods.size() != replicas || podSet.getStatus() == null || podSet.getStatus().getReplicas() != replicas) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> pickPodSetNames() {
+        List<String> names = new ArrayList<>();
+        for (int index = 0; index < POD_SETS; index++) {
+            names.add("podset-" + index);
+        }
+        Collections.shuffle(names, random);
+        return names.subList(0, Math.max(1, POD_SETS * CHURN_PERCENT / 100));
+    }
+
+    private void startSampling() {
+        sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakHeap.accumulateAndGet(memoryMXBean.getHeapMemoryUsage().getUsed(), Math::max);
+            peakQueueDepth.accumulateAndGet(podSetController.getQueueDepth(), Math::max);
+            // Platform threads only, virtual threads aren't counted
+            peakThreads.accumulateAndGet(threadMXBean.getThreadCount(), Math::max);
+        }, 0, 20, TimeUnit.MILLISECONDS);
+    }
+
+    private PodSet getPodSet(String name, int replicas) {
+        PodSetSpec podSetSpec = new PodSetSpec();
+        podSetSpec.setReplicas(replicas);
+        PodSet podSet = new PodSet();
+        podSet.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace(TEST_NAMESPACE).build());
+        podSet.setSpec(podSetSpec);
+        return podSet;
+    }
+}
@@ -51,7 +51,9 @@ class PodSetControllerTest {
         // Then
         RecordedRequest recordedRequest = server.takeRequest();
         assertEquals("POST", recordedRequest.getMethod());
-        assertTrue(recordedRequest.getBody().readUtf8().contains(testPodSet.getMetadata().getName()));
+        String createdPod = recordedRequest.getBody().readUtf8();
+        assertTrue(createdPod.contains(testPodSet.getMetadata().getName()));
+        assertTrue(createdPod.contains(PodSetController.MANAGED_BY_VALUE));
     }
 
     private Pod createPodWithName(String name) {
@@ -0,0 +1,61 @@
+package io.fabric8.podset.operator.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PodSetExpectationsTest {
+    private static final String KEY = "ns1/example-podset";
+
+    @Test
+    @DisplayName("Should be satisfied once all expected creations are observed")
+    void testCreationsObserved() {
+        // Given
+        PodSetExpectations expectations = new PodSetExpectations();
+        expectations.expectCreations(KEY, 2);
+
+        // When
+        expectations.creationObserved(KEY);
+
+        // Then
+        assertFalse(expectations.satisfiedExpectations(KEY));
+        expectations.creationObserved(KEY);
+        assertTrue(expectations.satisfiedExpectations(KEY));
+    }
+
+    @Test
+    @DisplayName("Should count deletion of same pod only once")
+    void testDeletionsObserved() {
+        // Given
+        PodSetExpectations expectations = new PodSetExpectations();
+        expectations.expectDeletions(KEY, Arrays.asList("pod1", "pod2"));
+
+        // When
+        expectations.deletionObserved(KEY, "pod1");
+        expectations.deletionObserved(KEY, "pod1");
+
+        // Then
+        assertFalse(expectations.satisfiedExpectations(KEY));
+        expectations.deletionObserved(KEY, "pod2");
+        assertTrue(expectations.satisfiedExpectations(KEY));
+    }
+
+    @Test
+    @DisplayName("Should be satisfied after expectations expire")
+    void testExpectationsExpire() throws InterruptedException {
+        // Given
+        PodSetExpectations expectations = new PodSetExpectations(10);
+        expectations.expectCreations(KEY, 5);
+
+        // When
+        Thread.sleep(50);
+
+        // Then
+        assertTrue(expectations.satisfiedExpectations(KEY));
+        assertTrue(expectations.satisfiedExpectations("ns1/unknown-podset"));
+    }
+}
@@ -0,0 +1,119 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.podset.operator.metrics.MetricsRegistry;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import io.fabric8.podset.operator.model.v1alpha1.PodSetStatus;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient
+class PodSetStatusUpdaterTest {
+    private KubernetesMockServer server;
+    private KubernetesClient client;
+
+    @Test
+    @DisplayName("Should coalesce status updates of same PodSet into a single merge patch")
+    void testUpdateStatusCoalescesPatches() throws InterruptedException {
+        // Given
+        PodSet podSet = getPodSet(null);
+        server.expect().patch().withPath("/apis/demo.fabric8.io/v1alpha1/namespaces/ns1/podsets/example-podset/status")
+                .andReturn(HttpURLConnection.HTTP_OK, podSet)
+                .always();
+        PodSetStatusUpdater statusUpdater = new PodSetStatusUpdater(client.resources(PodSet.class), 100, (key, backoffMillis) -> { }, new PodSetControllerMetrics(new MetricsRegistry()));
+
+        // When
+        statusUpdater.updateStatus(podSet, getPodSetStatus(1));
+        statusUpdater.updateStatus(podSet, getPodSetStatus(2));
+
+        // Then
+        RecordedRequest recordedRequest = server.takeRequest(2, TimeUnit.SECONDS);
+        assertEquals("PATCH", recordedRequest.getMethod());
+        assertTrue(recordedRequest.getHeader("Content-Type").startsWith("application/merge-patch+json"));
+        assertTrue(recordedRequest.getBody().readUtf8().contains("\"readyReplicas\":2"));
+        assertNull(server.takeRequest(300, TimeUnit.MILLISECONDS));
+        statusUpdater.shutDown();
+    }
+
+    @Test
+    @DisplayName("Should not write status which is unchanged")
+    void testUpdateStatusSkipsUnchangedStatus() throws InterruptedException {
+        // Given
+        PodSet podSet = getPodSet(getPodSetStatus(3));
+        PodSetStatusUpdater statusUpdater = new PodSetStatusUpdater(client.resources(PodSet.class), 10, (key, backoffMillis) -> { }, new PodSetControllerMetrics(new MetricsRegistry()));
+
+        // When
+        statusUpdater.updateStatus(podSet, getPodSetStatus(3));
+
+        // Then
+        assertNull(server.takeRequest(300, TimeUnit.MILLISECONDS));
+        statusUpdater.shutDown();
+    }
+
+    @Test
+    @DisplayName("Should back off further every time status patch of a PodSet fails, until PodSet is forgotten")
+    void testFailedPatchesBackOff() throws InterruptedException {
+        // Given
+        PodSet podSet = getPodSet(null);
+        server.expect().patch().withPath("/apis/demo.fabric8.io/v1alpha1/namespaces/ns1/podsets/example-podset/status")
+                .andReturn(HttpURLConnection.HTTP_INTERNAL_ERROR, "")
+                .always();
+        // Client retries of 5xx responses would hold each failure back
+        KubernetesClient noRetryClient = new KubernetesClientBuilder()
+                .withConfig(new ConfigBuilder(client.getConfiguration()).withRequestRetryBackoffLimit(0).build())
+                .build();
+        BlockingQueue<Long> backoffs = new LinkedBlockingQueue<>();
+        PodSetStatusUpdater statusUpdater = new PodSetStatusUpdater(noRetryClient.resources(PodSet.class), 10,
+                (key, backoffMillis) -> backoffs.add(backoffMillis), new PodSetControllerMetrics(new MetricsRegistry()));
+
+        // When
+        List<Long> delays = new ArrayList<>();
+        for (int attempt = 0; attempt < 4; attempt++) {
+            // Every retry reconciles PodSet again, computing status anew
+            statusUpdater.updateStatus(podSet, getPodSetStatus(attempt));
+            delays.add(backoffs.poll(10, TimeUnit.SECONDS));
+        }
+        statusUpdater.forget("ns1/example-podset");
+        statusUpdater.updateStatus(podSet, getPodSetStatus(4));
+        delays.add(backoffs.poll(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(Arrays.asList(5L, 10L, 20L, 40L, 5L), delays);
+        statusUpdater.shutDown();
+        noRetryClient.close();
+    }
+
+    private PodSetStatus getPodSetStatus(int readyReplicas) {
+        PodSetStatus podSetStatus = new PodSetStatus();
+        podSetStatus.setReplicas(3);
+        podSetStatus.setReadyReplicas(readyReplicas);
+        podSetStatus.setAvailableReplicas(readyReplicas);
+        podSetStatus.setObservedGeneration(1L);
+        return podSetStatus;
+    }
+
+    private PodSet getPodSet(PodSetStatus status) {
+        PodSet podSet = new PodSet();
+        podSet.setMetadata(new ObjectMetaBuilder().withName("example-podset").withNamespace("ns1").withGeneration(1L).build());
+        podSet.setStatus(status);
+        return podSet;
+    }
+}
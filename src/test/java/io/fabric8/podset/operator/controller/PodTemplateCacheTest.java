@@ -0,0 +1,94 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodTemplateSpecBuilder;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import io.fabric8.podset.operator.model.v1alpha1.PodSetSpec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PodTemplateCacheTest {
+    @Test
+    @DisplayName("Should create pods from PodSet template, stamped with template hash and owned by PodSet")
+    void testNewPod() {
+        // Given
+        PodTemplateCache templateCache = new PodTemplateCache(new KubernetesSerialization());
+        PodSet podSet = getPodSet(1L, "nginx");
+
+        // When
+        Pod pod = templateCache.newPod(podSet);
+        Pod secondPod = templateCache.newPod(podSet);
+
+        // Then
+        assertEquals("example-podset-pod", pod.getMetadata().getGenerateName());
+        assertEquals("ns1", pod.getMetadata().getNamespace());
+        assertEquals("demo", pod.getMetadata().getLabels().get("tier"));
+        assertEquals("example-podset", pod.getMetadata().getLabels().get(PodSetController.APP_LABEL));
+        assertEquals(templateCache.getTemplateHash(podSet), pod.getMetadata().getLabels().get(PodTemplateCache.TEMPLATE_HASH_LABEL));
+        assertEquals("nginx", pod.getSpec().getContainers().get(0).getImage());
+        OwnerReference ownerReference = Indexers.getControllerOf(pod);
+        assertEquals("demo.fabric8.io/v1alpha1", ownerReference.getApiVersion());
+        assertEquals("PodSet", ownerReference.getKind());
+        assertEquals("uid-1", ownerReference.getUid());
+        assertNotSame(pod.getMetadata(), secondPod.getMetadata());
+        assertSame(pod.getSpec(), secondPod.getSpec());
+        assertEquals(Collections.singletonList(Indexers.getTemplateHashIndexKey("uid-1", templateCache.getTemplateHash(podSet))),
+                Indexers.templateHashIndexFunc(pod));
+    }
+
+    @Test
+    @DisplayName("Should keep hashing templates the same way, so that upgrades don't roll pods")
+    void testTemplateHashIsStable() {
+        // Given
+        PodTemplateCache templateCache = new PodTemplateCache(new KubernetesSerialization());
+        PodSet podSet = getPodSet(1L, "nginx");
+        podSet.getSpec().setTemplate(null);
+
+        // When
+        String hash = templateCache.getTemplateHash(podSet);
+
+        // Then
+        assertEquals("125e9533dee1ad3c", hash);
+    }
+
+    @Test
+    @DisplayName("Should rebuild cached template only once PodSet generation changes")
+    void testTemplateIsRebuiltOnGenerationChange() {
+        // Given
+        PodTemplateCache templateCache = new PodTemplateCache(new KubernetesSerialization());
+        String hash = templateCache.getTemplateHash(getPodSet(1L, "nginx"));
+
+        // When
+        String sameGenerationHash = templateCache.getTemplateHash(getPodSet(1L, "httpd"));
+        String newGenerationHash = templateCache.getTemplateHash(getPodSet(2L, "httpd"));
+        String sameTemplateHash = new PodTemplateCache(new KubernetesSerialization()).getTemplateHash(getPodSet(5L, "httpd"));
+
+        // Then
+        assertEquals(hash, sameGenerationHash);
+        assertNotEquals(hash, newGenerationHash);
+        assertEquals(newGenerationHash, sameTemplateHash);
+    }
+
+    private PodSet getPodSet(Long generation, String image) {
+        PodSetSpec podSetSpec = new PodSetSpec();
+        podSetSpec.setReplicas(2);
+        podSetSpec.setTemplate(new PodTemplateSpecBuilder()
+                .withNewMetadata().addToLabels("tier", "demo").endMetadata()
+                .withNewSpec().addNewContainer().withName("web").withImage(image).endContainer().endSpec()
+                .build());
+        PodSet podSet = new PodSet();
+        podSet.setMetadata(new ObjectMetaBuilder().withName("example-podset").withNamespace("ns1").withUid("uid-1").withGeneration(generation).build());
+        podSet.setSpec(podSetSpec);
+        return podSet;
+    }
+}
@@ -0,0 +1,57 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.podset.operator.model.v1alpha1.PodSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PredicatesTest {
+    @Test
+    @DisplayName("Should filter PodSet updates which don't change generation")
+    void testPodSetGenerationChanged() {
+        // Given
+        UpdatePredicate<PodSet> predicate = Predicates.podSetGenerationChanged();
+
+        // When + Then
+        assertFalse(predicate.test(getPodSet(1L, "100"), getPodSet(1L, "101")));
+        assertTrue(predicate.test(getPodSet(1L, "101"), getPodSet(2L, "102")));
+        assertEquals(1, predicate.getFilteredCount());
+        assertEquals(1, predicate.getPassedCount());
+    }
+
+    @Test
+    @DisplayName("Should filter Pod updates which don't change phase, readiness, deletion or ownership")
+    void testPodStateChanged() {
+        // Given
+        UpdatePredicate<Pod> predicate = Predicates.podStateChanged();
+        Pod pod = getPod("100", "Running", "False");
+
+        // When + Then
+        assertFalse(predicate.test(pod, getPod("100", "Running", "False")));
+        assertFalse(predicate.test(pod, new PodBuilder(getPod("101", "Running", "False")).editMetadata().addToAnnotations("foo", "bar").endMetadata().build()));
+        assertTrue(predicate.test(pod, getPod("102", "Running", "True")));
+        assertTrue(predicate.test(pod, getPod("103", "Failed", "False")));
+        assertTrue(predicate.test(pod, new PodBuilder(getPod("104", "Running", "False")).editMetadata().withDeletionTimestamp("2026-01-01T00:00:00Z").endMetadata().build()));
+        assertEquals(2, predicate.getFilteredCount());
+    }
+
+    private PodSet getPodSet(Long generation, String resourceVersion) {
+        PodSet podSet = new PodSet();
+        podSet.setMetadata(new ObjectMetaBuilder().withName("example-podset").withNamespace("ns1")
+                .withGeneration(generation).withResourceVersion(resourceVersion).build());
+        return podSet;
+    }
+
+    private Pod getPod(String resourceVersion, String phase, String ready) {
+        return new PodBuilder()
+                .withNewMetadata().withName("example-podset-pod1").withNamespace("ns1").withResourceVersion(resourceVersion).endMetadata()
+                .withNewStatus().withPhase(phase).addNewCondition().withType("Ready").withStatus(ready).endCondition().endStatus()
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package io.fabric8.podset.operator.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateLimitingQueueTest {
+    @Test
+    @DisplayName("Should not queue an item which is already waiting in queue")
+    void testAddDeduplicatesItems() throws InterruptedException {
+        // Given
+        RateLimitingQueue<String> queue = new RateLimitingQueue<>(RateLimitingQueue.defaultControllerRateLimiter());
+
+        // When
+        queue.add("ns1/podset1");
+        queue.add("ns1/podset1");
+        queue.add("ns1/podset2");
+
+        // Then
+        assertEquals(2, queue.len());
+        assertEquals("ns1/podset1", queue.get());
+        assertEquals("ns1/podset2", queue.get());
+    }
+
+    @Test
+    @DisplayName("Should not hand out an item which is being processed until it's done")
+    void testItemBeingProcessedIsRequeuedOnDone() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        RateLimitingQueue<String> queue = new RateLimitingQueue<>(RateLimitingQueue.defaultControllerRateLimiter());
+        queue.add("ns1/podset1");
+        String key = queue.get();
+
+        // When
+        queue.add(key);
+
+        // Then
+        assertEquals(0, queue.len());
+        CompletableFuture<String> secondWorker = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.get();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        });
+        assertThrows(TimeoutException.class, () -> secondWorker.get(100, TimeUnit.MILLISECONDS));
+        queue.done(key);
+        assertEquals("ns1/podset1", secondWorker.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should add rate limited items back after a delay")
+    void testAddRateLimited() throws InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        RateLimitingQueue<String> queue = new RateLimitingQueue<>(new ItemExponentialFailureRateLimiter<>(50, 1000));
+
+        // When
+        queue.addRateLimited("ns1/podset1");
+
+        // Then
+        assertEquals(0, queue.len());
+        assertEquals(1, queue.numRequeues("ns1/podset1"));
+        assertEquals("ns1/podset1", CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.get();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }).get(1, TimeUnit.SECONDS));
+        queue.forget("ns1/podset1");
+        assertEquals(0, queue.numRequeues("ns1/podset1"));
+    }
+
+    @Test
+    @DisplayName("Should hand out low priority items only after regular ones, promoting them when added again")
+    void testLowPriorityItems() throws InterruptedException {
+        // Given
+        RateLimitingQueue<String> queue = new RateLimitingQueue<>(RateLimitingQueue.defaultControllerRateLimiter());
+
+        // When
+        queue.addLowPriority("ns1/podset1");
+        queue.addLowPriority("ns1/podset2");
+        queue.addLowPriority("ns1/podset3");
+        queue.add("ns1/podset4");
+        queue.add("ns1/podset2");
+        queue.addLowPriority("ns1/podset4");
+
+        // Then
+        assertEquals(4, queue.len());
+        assertEquals(2, queue.lowPriorityLen());
+        assertEquals("ns1/podset4", queue.get());
+        assertEquals("ns1/podset2", queue.get());
+        assertEquals("ns1/podset1", queue.get());
+        assertEquals("ns1/podset3", queue.get());
+        assertEquals(0, queue.len());
+    }
+
+    @Test
+    @DisplayName("Should hand out items of different groups in turns")
+    void testGroupsTakeTurns() throws InterruptedException {
+        // Given
+        RateLimitingQueue<String> queue = new RateLimitingQueue<>(RateLimitingQueue.defaultControllerRateLimiter(), seconds -> { },
+                PodSetController::getNamespaceOfKey);
+
+        // When
+        for (int index = 0; index < 3; index++) {
+            queue.add("tenant1/podset" + index);
+        }
+        queue.add("tenant2/podset0");
+        queue.add("tenant3/podset0");
+        queue.add("tenant2/podset1");
+
+        // Then
+        assertEquals(6, queue.len());
+        assertEquals("tenant1/podset0", queue.get());
+        assertEquals("tenant2/podset0", queue.get());
+        assertEquals("tenant3/podset0", queue.get());
+        assertEquals("tenant1/podset1", queue.get());
+        assertEquals("tenant2/podset1", queue.get());
+        assertEquals("tenant1/podset2", queue.get());
+        assertEquals(0, queue.len());
+    }
+
+    @Test
+    @DisplayName("Should release waiting workers on shutdown")
+    void testShutDown() throws InterruptedException {
+        // Given
+        RateLimitingQueue<String> queue = new RateLimitingQueue<>(RateLimitingQueue.defaultControllerRateLimiter());
+
+        // When
+        queue.shutDown();
+        queue.add("ns1/podset1");
+
+        // Then
+        assertNull(queue.get());
+    }
+
+    @Test
+    @DisplayName("Should back off exponentially per item up to max delay")
+    void testItemExponentialFailureRateLimiter() {
+        // Given
+        RateLimiter<String> rateLimiter = new ItemExponentialFailureRateLimiter<>(5, 20);
+
+        // When + Then
+        assertEquals(5, rateLimiter.when("ns1/podset1"));
+        assertEquals(10, rateLimiter.when("ns1/podset1"));
+        assertEquals(20, rateLimiter.when("ns1/podset1"));
+        assertEquals(20, rateLimiter.when("ns1/podset1"));
+        assertEquals(5, rateLimiter.when("ns1/podset2"));
+        rateLimiter.forget("ns1/podset1");
+        assertEquals(5, rateLimiter.when("ns1/podset1"));
+    }
+
+    @Test
+    @DisplayName("Should delay items once token bucket burst is used up")
+    void testBucketRateLimiter() {
+        // Given
+        RateLimiter<String> rateLimiter = new BucketRateLimiter<>(1, 2);
+
+        // When + Then
+        assertEquals(0, rateLimiter.when("ns1/podset1"));
+        assertEquals(0, rateLimiter.when("ns1/podset2"));
+        assertFalse(rateLimiter.when("ns1/podset3") <= 0);
+    }
+}
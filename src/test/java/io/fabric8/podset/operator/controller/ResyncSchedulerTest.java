@@ -0,0 +1,74 @@
+package io.fabric8.podset.operator.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResyncSchedulerTest {
+    private static final long PERIOD_NANOS = TimeUnit.SECONDS.toNanos(100);
+
+    @Test
+    @DisplayName("Should spread resync of all keys evenly across period, starting one period after start")
+    void testResyncIsSpreadAcrossPeriod() {
+        // Given
+        List<String> keys = createKeys(1000);
+        List<String> enqueued = new ArrayList<>();
+        ResyncScheduler resyncScheduler = new ResyncScheduler(TimeUnit.NANOSECONDS.toMillis(PERIOD_NANOS), () -> keys, enqueued::add, new Random(42));
+
+        // When
+        resyncScheduler.tick(PERIOD_NANOS - 1);
+        int beforeFirstPeriod = enqueued.size();
+        List<Integer> enqueuedPerSecond = new ArrayList<>();
+        for (long second = 1; second <= 100; second++) {
+            int enqueuedBefore = enqueued.size();
+            resyncScheduler.tick(PERIOD_NANOS + TimeUnit.SECONDS.toNanos(second));
+            enqueuedPerSecond.add(enqueued.size() - enqueuedBefore);
+        }
+
+        // Then
+        assertEquals(0, beforeFirstPeriod);
+        assertEquals(1000, enqueued.size());
+        assertEquals(new HashSet<>(keys), new HashSet<>(enqueued));
+        for (int count : enqueuedPerSecond.subList(0, 99)) {
+            assertTrue(count >= 9 && count <= 11, "Expected about 10 keys per second, got " + enqueuedPerSecond);
+        }
+        assertEquals(0, resyncScheduler.getBacklog());
+    }
+
+    @Test
+    @DisplayName("Should report keys which are not due yet as backlog and start next cycle once period is over")
+    void testBacklogAndNextCycle() {
+        // Given
+        List<String> keys = createKeys(10);
+        List<String> enqueued = new ArrayList<>();
+        ResyncScheduler resyncScheduler = new ResyncScheduler(TimeUnit.NANOSECONDS.toMillis(PERIOD_NANOS), () -> keys, enqueued::add, new Random(42));
+
+        // When
+        resyncScheduler.tick(PERIOD_NANOS + PERIOD_NANOS / 2);
+        int backlogHalfWay = resyncScheduler.getBacklog();
+        resyncScheduler.tick(2 * PERIOD_NANOS);
+        int enqueuedInFirstCycle = enqueued.size();
+        resyncScheduler.tick(3 * PERIOD_NANOS - 1);
+
+        // Then
+        assertEquals(10, enqueuedInFirstCycle);
+        assertTrue(backlogHalfWay >= 4 && backlogHalfWay <= 6, "Expected half of keys in backlog, got " + backlogHalfWay);
+        assertEquals(20, enqueued.size());
+    }
+
+    private static List<String> createKeys(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            keys.add("ns1/podset-" + index);
+        }
+        return keys;
+    }
+}
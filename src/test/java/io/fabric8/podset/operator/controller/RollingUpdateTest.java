@@ -0,0 +1,81 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.IntOrString;
+import io.fabric8.kubernetes.api.model.apps.DeploymentStrategy;
+import io.fabric8.kubernetes.api.model.apps.DeploymentStrategyBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollingUpdateTest {
+    @Test
+    @DisplayName("Should resolve maxSurge rounding up and maxUnavailable rounding down")
+    void testResolve() {
+        assertEquals(3, RollingUpdate.resolve(new IntOrString("25%"), RollingUpdate.DEFAULT_MAX_SURGE, 10, true));
+        assertEquals(2, RollingUpdate.resolve(new IntOrString("25%"), RollingUpdate.DEFAULT_MAX_UNAVAILABLE, 10, false));
+        assertEquals(4, RollingUpdate.resolve(new IntOrString(4), RollingUpdate.DEFAULT_MAX_SURGE, 10, true));
+        assertEquals(1, RollingUpdate.resolve(null, RollingUpdate.DEFAULT_MAX_SURGE, 4, true));
+    }
+
+    @Test
+    @DisplayName("Should fall back to default limits for values which are neither a number nor a percentage")
+    void testResolveInvalidValue() {
+        assertEquals(3, RollingUpdate.resolve(new IntOrString("abc"), RollingUpdate.DEFAULT_MAX_SURGE, 10, true));
+        assertEquals(2, RollingUpdate.resolve(new IntOrString("abc%"), RollingUpdate.DEFAULT_MAX_UNAVAILABLE, 10, false));
+        assertEquals(3, RollingUpdate.resolve(new IntOrString("25 %"), RollingUpdate.DEFAULT_MAX_SURGE, 10, true));
+        assertEquals(3, RollingUpdate.resolve(new IntOrString("-10%"), RollingUpdate.DEFAULT_MAX_SURGE, 10, true));
+    }
+
+    @Test
+    @DisplayName("Should create and delete pods in the same wave within maxSurge and maxUnavailable")
+    void testPlanWave() {
+        // Given
+        DeploymentStrategy strategy = getRollingUpdate(2, 1);
+
+        // When
+        // 10 ready outdated pods
+        RollingUpdate firstWave = RollingUpdate.planWave(strategy, 10, 10, 10, 10, 0);
+        // 2 new pods not ready yet, 1 outdated pod deleted
+        RollingUpdate waitingWave = RollingUpdate.planWave(strategy, 10, 11, 9, 9, 0);
+        // 2 new pods became ready
+        RollingUpdate nextWave = RollingUpdate.planWave(strategy, 10, 11, 11, 9, 0);
+
+        // Then
+        assertEquals(2, firstWave.getCreations());
+        assertEquals(1, firstWave.getDeletions());
+        assertEquals(1, waitingWave.getCreations());
+        assertEquals(0, waitingWave.getDeletions());
+        assertEquals(1, nextWave.getCreations());
+        assertEquals(2, nextWave.getDeletions());
+    }
+
+    @Test
+    @DisplayName("Should delete unready outdated pods right away, and all outdated pods on Recreate")
+    void testPlanWaveDeletesUnreadyPods() {
+        // Given
+        DeploymentStrategy strategy = getRollingUpdate(0, 0);
+        DeploymentStrategy recreate = new DeploymentStrategyBuilder().withType(RollingUpdate.RECREATE_STRATEGY).build();
+
+        // When
+        RollingUpdate wave = RollingUpdate.planWave(strategy, 4, 4, 2, 4, 2);
+        RollingUpdate recreateWave = RollingUpdate.planWave(recreate, 4, 4, 4, 4, 0);
+
+        // Then
+        // Both limits being 0 would never make progress, one pod is allowed to be unavailable
+        assertEquals(0, wave.getCreations());
+        assertEquals(2, wave.getDeletions());
+        assertEquals(0, recreateWave.getCreations());
+        assertEquals(4, recreateWave.getDeletions());
+    }
+
+    private DeploymentStrategy getRollingUpdate(int maxSurge, int maxUnavailable) {
+        return new DeploymentStrategyBuilder()
+                .withType(RollingUpdate.ROLLING_UPDATE_STRATEGY)
+                .withNewRollingUpdate()
+                  .withMaxSurge(new IntOrString(maxSurge))
+                  .withMaxUnavailable(new IntOrString(maxUnavailable))
+                .endRollingUpdate()
+                .build();
+    }
+}
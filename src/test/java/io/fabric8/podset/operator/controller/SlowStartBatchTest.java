@@ -0,0 +1,52 @@
+package io.fabric8.podset.operator.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SlowStartBatchTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Test
+    @DisplayName("Should execute all calls when none of them fail")
+    void testExecuteAllSucceed() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        SlowStartBatch.Result result = SlowStartBatch.execute(10, 1, executor, calls::incrementAndGet);
+
+        // Then
+        assertEquals(10, calls.get());
+        assertEquals(10, result.getSuccesses());
+        assertNull(result.getFailure());
+    }
+
+    @Test
+    @DisplayName("Should skip remaining batches after first failure")
+    void testExecuteStopsOnFailure() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        SlowStartBatch.Result result = SlowStartBatch.execute(100, 1, executor, () -> {
+            if (calls.incrementAndGet() > 2) {
+                throw new IllegalStateException("quota exceeded");
+            }
+        });
+
+        // Then
+        // Batches of 1 and 2 are sent, second batch has one failure so batch of 4 is never sent
+        assertEquals(3, calls.get());
+        assertEquals(2, result.getSuccesses());
+        assertNotNull(result.getFailure());
+        assertEquals("quota exceeded", result.getFailure().getMessage());
+    }
+}
@@ -0,0 +1,51 @@
+package io.fabric8.podset.operator.controller;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.readiness.Readiness;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrimmingPodItemStoreTest {
+    @Test
+    @DisplayName("Should keep only fields used by controller when storing pod")
+    void testPutTrimsPod() {
+        // Given
+        TrimmingPodItemStore store = new TrimmingPodItemStore();
+        Pod pod = new PodBuilder()
+                .withNewMetadata().withName("example-podset-pod1").withNamespace("ns1")
+                .addToLabels(PodSetController.APP_LABEL, "example-podset")
+                .addToAnnotations("kubectl.kubernetes.io/last-applied-configuration", "{}")
+                .addToAnnotations(TrimmingPodItemStore.POD_DELETION_COST_ANNOTATION, "100")
+                .addNewOwnerReference().withKind("PodSet").withName("example-podset").withUid("uid-1").withController(true).endOwnerReference()
+                .addNewManagedField().withManager("kubelet").endManagedField()
+                .endMetadata()
+                .withNewSpec().withNodeName("node-1").addNewContainer().withName("busybox").withImage("busybox").endContainer().endSpec()
+                .withNewStatus().withPhase("Running").addNewCondition().withType("Ready").withStatus("True").endCondition()
+                .addNewContainerStatus().withName("busybox").withImage("busybox").withRestartCount(2).endContainerStatus().endStatus()
+                .build();
+
+        // When
+        store.put(store.getKey(pod), pod);
+
+        // Then
+        Pod cachedPod = store.get("ns1/example-podset-pod1");
+        assertNull(cachedPod.getMetadata().getManagedFields());
+        assertEquals(Collections.singletonMap(TrimmingPodItemStore.POD_DELETION_COST_ANNOTATION, "100"), cachedPod.getMetadata().getAnnotations());
+        assertEquals(Collections.singletonList("uid-1"), Indexers.ownerUidIndexFunc(cachedPod));
+        assertEquals("node-1", cachedPod.getSpec().getNodeName());
+        assertTrue(cachedPod.getSpec().getContainers().isEmpty());
+        assertEquals("Running", cachedPod.getStatus().getPhase());
+        assertTrue(Readiness.isPodReady(cachedPod));
+        assertEquals(1, cachedPod.getStatus().getContainerStatuses().size());
+        assertEquals(2, cachedPod.getStatus().getContainerStatuses().get(0).getRestartCount());
+        assertNull(cachedPod.getStatus().getContainerStatuses().get(0).getImage());
+        assertNull(cachedPod.getMetadata().getGenerateName());
+    }
+}
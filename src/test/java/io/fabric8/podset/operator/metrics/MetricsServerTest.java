@@ -0,0 +1,90 @@
+package io.fabric8.podset.operator.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsServerTest {
+    @Test
+    @DisplayName("Should render counters, gauges and histograms in Prometheus text format")
+    void testScrape() {
+        // Given
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("podset_test_total", "Test counter", "verb");
+        Histogram histogram = registry.histogram("podset_test_seconds", "Test histogram");
+        registry.gauge("podset_test_depth", "Test gauge", () -> 3);
+
+        // When
+        counter.inc("create_pod");
+        counter.inc("create_pod");
+        histogram.observe(0.02);
+        histogram.observe(20);
+        String output = registry.scrape();
+
+        // Then
+        assertTrue(output.contains("# TYPE podset_test_total counter\n"));
+        assertTrue(output.contains("podset_test_total{verb=\"create_pod\"} 2.0\n"));
+        assertTrue(output.contains("podset_test_seconds_bucket{le=\"0.01\"} 0\n"));
+        assertTrue(output.contains("podset_test_seconds_bucket{le=\"0.025\"} 1\n"));
+        assertTrue(output.contains("podset_test_seconds_bucket{le=\"+Inf\"} 2\n"));
+        assertTrue(output.contains("podset_test_seconds_count 2\n"));
+        assertTrue(output.contains("podset_test_depth 3.0\n"));
+        assertEquals(2, histogram.getCount());
+    }
+
+    @Test
+    @DisplayName("Should reject registering a metric twice")
+    void testDuplicateRegistration() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("podset_test_total", "Test counter");
+
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("podset_test_total", "Test counter"));
+    }
+
+    @Test
+    @DisplayName("Should serve metrics and report readiness once informers are synced")
+    void testServesMetricsAndProbes() throws IOException {
+        // Given
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("podset_test_total", "Test counter").inc();
+        AtomicBoolean synced = new AtomicBoolean(false);
+
+        try (MetricsServer metricsServer = new MetricsServer(0, registry, synced::get).start()) {
+            // When + Then
+            assertEquals(200, get(metricsServer, "/healthz"));
+            assertEquals(503, get(metricsServer, "/readyz"));
+            synced.set(true);
+            assertEquals(200, get(metricsServer, "/readyz"));
+            assertEquals(200, get(metricsServer, "/metrics"));
+        }
+    }
+
+    private static int get(MetricsServer metricsServer, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + metricsServer.getPort() + path).openConnection();
+        try {
+            int status = connection.getResponseCode();
+            InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int read;
+            while ((read = body.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+            assertTrue(new String(buffer.toByteArray(), StandardCharsets.UTF_8).length() > 0);
+            return status;
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.fabric8.podset.operator.tracing;
+
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TracerTest {
+    @Test
+    @DisplayName("Should start trace at first event enqueueing PodSet and export it once released by everyone holding it")
+    void testTraceFromEventToRelease() {
+        // Given
+        List<Trace> exported = new ArrayList<>();
+        Tracer tracer = new Tracer(0, exported::add);
+        tracer.eventReceived("ns1/example-podset", "pod update");
+        tracer.eventReceived("ns1/example-podset", "pod delete");
+
+        // When
+        Trace trace = tracer.startTrace("ns1/example-podset");
+        tracer.currentTrace().startSpan("pod-lookup").setAttribute("pods", 3).end();
+        // Held by a pending status patch
+        trace.hold();
+        tracer.detach();
+        trace.release();
+        List<Trace> exportedBeforePatch = new ArrayList<>(exported);
+        trace.addSpan("status-patch", System.nanoTime(), System.nanoTime());
+        trace.release();
+
+        // Then
+        assertTrue(exportedBeforePatch.isEmpty());
+        assertSame(Trace.NOOP, tracer.currentTrace());
+        assertEquals(1, exported.size());
+        assertEquals(1, tracer.getExportedCount());
+        Map<String, Object> traceMap = exported.get(0).toMap();
+        assertEquals("ns1/example-podset", traceMap.get("key"));
+        assertEquals("pod update", traceMap.get("trigger"));
+        assertEquals(2, traceMap.get("events"));
+        List<?> spans = (List<?>) traceMap.get("spans");
+        assertEquals(3, spans.size());
+        assertEquals("workqueue", ((Map<?, ?>) spans.get(0)).get("name"));
+        assertEquals(3, ((Map<?, ?>) ((Map<?, ?>) spans.get(1)).get("attributes")).get("pods"));
+        assertEquals("status-patch", ((Map<?, ?>) spans.get(2)).get("name"));
+    }
+
+    @Test
+    @DisplayName("Should only export traces over threshold, as JSON lines")
+    void testExportsSlowTraces(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("traces.json");
+        Tracer tracer = new Tracer(60_000, new JsonTraceExporter(file, new KubernetesSerialization()));
+        Tracer slowTracer = new Tracer(0, new JsonTraceExporter(file, new KubernetesSerialization()));
+
+        // When
+        tracer.startTrace("ns1/fast-podset").release();
+        Trace slowTrace = slowTracer.startTrace("ns1/slow-podset");
+        slowTrace.setError(new IllegalStateException("boom"));
+        slowTrace.release();
+        slowTracer.detach();
+
+        // Then
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"key\":\"ns1/slow-podset\",\"trigger\":\"unknown\""));
+        assertTrue(lines.get(0).contains("\"error\":\"java.lang.IllegalStateException: boom\""));
+        assertEquals(0, tracer.getExportedCount());
+    }
+}